@@ -0,0 +1,321 @@
+package me.jeremiah.data.storage.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Generates an <Entry>Schema next to every entry class, reading its index and sorted fields and calling its codec
+// directly so the database components can skip reflection.
+@SupportedAnnotationTypes({
+  SchemaProcessor.STORAGE + "Indexable",
+  SchemaProcessor.STORAGE + "Sorted",
+  SchemaProcessor.STORAGE + "Serializer",
+  SchemaProcessor.STORAGE + "Deserializer",
+  SchemaProcessor.STORAGE + "CompositeIndexable",
+  SchemaProcessor.STORAGE + "CompositeIndexables"
+})
+public final class SchemaProcessor extends AbstractProcessor {
+
+  static final String STORAGE = "me.jeremiah.data.storage.";
+
+  private static final Map<TypeKind, String> BOXES = Map.of(
+    TypeKind.BOOLEAN, "Boolean",
+    TypeKind.BYTE, "Byte",
+    TypeKind.SHORT, "Short",
+    TypeKind.INT, "Integer",
+    TypeKind.LONG, "Long",
+    TypeKind.CHAR, "Character",
+    TypeKind.FLOAT, "Float",
+    TypeKind.DOUBLE, "Double"
+  );
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+    Set<TypeElement> entryClasses = new LinkedHashSet<>();
+    for (TypeElement annotation : annotations)
+      for (Element element : round.getElementsAnnotatedWith(annotation))
+        entryClasses.add(element instanceof TypeElement type ? type : (TypeElement) element.getEnclosingElement());
+    for (TypeElement entryClass : entryClasses)
+      if (isReachable(entryClass))
+        generate(entryClass);
+      else
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+          "No schema generated for %s, it must be a non-private, non-generic top-level or static nested class".formatted(entryClass), entryClass);
+    return false;
+  }
+
+  // The schema lives in the entry's package, so it can only reference entries reachable from there.
+  private static boolean isReachable(TypeElement entryClass) {
+    if (entryClass.getKind() != ElementKind.CLASS && entryClass.getKind() != ElementKind.RECORD)
+      return false;
+    if (!entryClass.getTypeParameters().isEmpty())
+      return false;
+    Element element = entryClass;
+    while (element instanceof TypeElement type) {
+      if (type.getModifiers().contains(Modifier.PRIVATE))
+        return false;
+      Element enclosing = type.getEnclosingElement();
+      if (enclosing instanceof TypeElement && !type.getModifiers().contains(Modifier.STATIC) && type.getKind() == ElementKind.CLASS)
+        return false;
+      element = enclosing;
+    }
+    return true;
+  }
+
+  private void generate(TypeElement entryClass) {
+    String packageName = processingEnv.getElementUtils().getPackageOf(entryClass).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(entryClass).toString();
+    String schemaName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('$', '_') + "Schema";
+    String entryName = entryClass.getQualifiedName().toString();
+
+    Map<String, VariableElement> fields = new LinkedHashMap<>();
+    Set<String> covered = coveredFields(entryClass);
+    for (VariableElement field : ElementFilter.fieldsIn(entryClass.getEnclosedElements()))
+      if (covered.contains(field.getSimpleName().toString()) && !field.getModifiers().contains(Modifier.STATIC) && typeName(field.asType(), true) != null)
+        fields.put(field.getSimpleName().toString(), field);
+
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty())
+      source.append("package ").append(packageName).append(";\n\n");
+    source.append("import me.jeremiah.data.storage.EntrySchema;\n")
+      .append("import me.jeremiah.data.storage.FieldAccessor;\n")
+      .append("import me.jeremiah.data.storage.ReflectionUtils;\n\n")
+      .append("import java.lang.invoke.MethodHandles;\n")
+      .append("import java.lang.invoke.VarHandle;\n")
+      .append("import java.util.function.Function;\n\n")
+      .append("@javax.annotation.processing.Generated(\"").append(SchemaProcessor.class.getName()).append("\")\n")
+      .append("public final class ").append(schemaName).append(" implements EntrySchema<").append(entryName).append("> {\n");
+
+    // Private fields without a getter are read through a constant VarHandle, which the JIT folds like a field read.
+    List<String> handles = new ArrayList<>();
+    StringBuilder accessors = new StringBuilder();
+    for (VariableElement field : fields.values())
+      appendAccessor(accessors, entryClass, entryName, field, handles);
+    if (!handles.isEmpty())
+      source.append("\n");
+    for (String handle : handles)
+      source.append(handle);
+    source.append(accessors);
+    if (!handles.isEmpty())
+      source.append("\n  private static VarHandle handle(String name, Class<?> type) {\n")
+        .append("    try {\n")
+        .append("      return MethodHandles.privateLookupIn(").append(entryName).append(".class, MethodHandles.lookup()).findVarHandle(")
+        .append(entryName).append(".class, name, type);\n")
+        .append("    } catch (ReflectiveOperationException exception) {\n")
+        .append("      throw new ExceptionInInitializerError(exception);\n")
+        .append("    }\n")
+        .append("  }\n");
+
+    source.append("\n  @Override\n")
+      .append("  public FieldAccessor accessor(String field) {\n")
+      .append("    return switch (field) {\n");
+    for (String field : fields.keySet())
+      source.append("      case \"").append(field).append("\" -> ").append(constantName(field)).append(";\n");
+    source.append("      default -> null;\n")
+      .append("    };\n")
+      .append("  }\n");
+
+    appendCodec(source, entryClass, entryName);
+    source.append("\n}\n");
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? schemaName : packageName + "." + schemaName, entryClass).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException exception) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write schema %s: %s".formatted(schemaName, exception.getMessage()), entryClass);
+    }
+  }
+
+  // Every @Indexable and @Sorted field, plus the fields named by composite indexes.
+  private static Set<String> coveredFields(TypeElement entryClass) {
+    Set<String> covered = new LinkedHashSet<>();
+    for (VariableElement field : ElementFilter.fieldsIn(entryClass.getEnclosedElements()))
+      if (getAnnotation(field, "Indexable") != null || getAnnotation(field, "Sorted") != null)
+        covered.add(field.getSimpleName().toString());
+    List<AnnotationMirror> composites = new ArrayList<>();
+    AnnotationMirror single = getAnnotation(entryClass, "CompositeIndexable");
+    if (single != null)
+      composites.add(single);
+    AnnotationMirror container = getAnnotation(entryClass, "CompositeIndexables");
+    if (container != null)
+      for (AnnotationValue value : listValue(container, "value"))
+        composites.add((AnnotationMirror) value.getValue());
+    for (AnnotationMirror composite : composites)
+      for (AnnotationValue value : listValue(composite, "fields"))
+        covered.add((String) value.getValue());
+    return covered;
+  }
+
+  private void appendAccessor(StringBuilder source, TypeElement entryClass, String entryName, VariableElement field, List<String> handles) {
+    String name = field.getSimpleName().toString();
+    String constant = constantName(name);
+    TypeKind kind = field.asType().getKind();
+    String type = typeName(field.asType(), true);
+    String target = "((" + entryName + ") target)";
+    String read;
+    if (!field.getModifiers().contains(Modifier.PRIVATE))
+      read = target + "." + name;
+    else {
+      ExecutableElement getter = findGetter(entryClass, field);
+      if (getter != null)
+        read = target + "." + getter.getSimpleName() + "()";
+      else {
+        handles.add("  private static final VarHandle " + constant + "_HANDLE = handle(\"" + name + "\", " + type + ".class);\n");
+        read = (kind.isPrimitive() ? "(" + type + ") " : "") + constant + "_HANDLE.get(" + target + ")";
+      }
+    }
+
+    source.append("\n  private static final FieldAccessor ").append(constant).append(" = new FieldAccessor() {\n")
+      .append("    @Override\n")
+      .append("    public Class<?> getType() {\n")
+      .append("      return ").append(type).append(".class;\n")
+      .append("    }\n\n")
+      .append("    @Override\n")
+      .append("    public Object get(Object target) {\n")
+      .append("      return ").append(read).append(";\n")
+      .append("    }\n");
+    if (kind == TypeKind.BYTE || kind == TypeKind.SHORT || kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.CHAR)
+      source.append("\n    @Override\n")
+        .append("    public long getLong(Object target) {\n")
+        .append("      return ").append(read).append(";\n")
+        .append("    }\n");
+    if (kind == TypeKind.FLOAT || kind == TypeKind.DOUBLE)
+      source.append("\n    @Override\n")
+        .append("    public double getDouble(Object target) {\n")
+        .append("      return ").append(read).append(";\n")
+        .append("    }\n");
+    if (kind.isPrimitive()) {
+      // Sorted fields rank highest first, so the arguments are swapped.
+      String box = BOXES.get(kind);
+      source.append("\n    @Override\n")
+        .append("    public int compare(Object value1, Object value2) {\n")
+        .append("      if (value1 == null || value2 == null)\n")
+        .append("        return ReflectionUtils.compareSortedValues(value1, value2);\n")
+        .append("      return ").append(box).append(".compare((").append(box).append(") value2, (").append(box).append(") value1);\n")
+        .append("    }\n");
+    }
+    source.append("  };\n");
+  }
+
+  private void appendCodec(StringBuilder source, TypeElement entryClass, String entryName) {
+    for (ExecutableElement method : ElementFilter.methodsIn(entryClass.getEnclosedElements())) {
+      if (method.getModifiers().contains(Modifier.PRIVATE))
+        continue;
+      boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+      if (getAnnotation(method, "Serializer") != null && !isStatic && method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID)
+        source.append("\n  @Override\n")
+          .append("  public Function<Object, ?> serializer() {\n")
+          .append("    return entry -> ((").append(entryName).append(") entry).").append(method.getSimpleName()).append("();\n")
+          .append("  }\n");
+      if (getAnnotation(method, "Deserializer") != null && isStatic && method.getParameters().size() == 1) {
+        String parameter = typeName(method.getParameters().getFirst().asType(), false);
+        if (parameter == null)
+          continue;
+        source.append("\n  @Override\n")
+          .append("  @SuppressWarnings(\"unchecked\")\n")
+          .append("  public Function<Object, ?> deserializer() {\n")
+          .append("    return data -> ").append(entryName).append(".").append(method.getSimpleName()).append("((").append(parameter).append(") data);\n")
+          .append("  }\n");
+      }
+    }
+  }
+
+  // A non-private, no-argument getX(), isX() or x() returning the field's type, which the JIT inlines like a field read.
+  private ExecutableElement findGetter(TypeElement entryClass, VariableElement field) {
+    String name = field.getSimpleName().toString();
+    String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    Set<String> names = Set.of("get" + capitalized, "is" + capitalized, name);
+    for (ExecutableElement method : ElementFilter.methodsIn(entryClass.getEnclosedElements()))
+      if (names.contains(method.getSimpleName().toString())
+        && method.getParameters().isEmpty()
+        && !method.getModifiers().contains(Modifier.PRIVATE)
+        && !method.getModifiers().contains(Modifier.STATIC)
+        && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType()))
+        return method;
+    return null;
+  }
+
+  private static AnnotationMirror getAnnotation(Element element, String simpleName) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors())
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(STORAGE + simpleName))
+        return mirror;
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<? extends AnnotationValue> listValue(AnnotationMirror mirror, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet())
+      if (entry.getKey().getSimpleName().contentEquals(name))
+        return (List<? extends AnnotationValue>) entry.getValue().getValue();
+    return List.of();
+  }
+
+  private static String constantName(String field) {
+    return field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+  }
+
+  // Source form of a type, built from qualified names so type-use annotations never leak in. Null for type variables.
+  private static String typeName(TypeMirror type, boolean erased) {
+    if (type.getKind().isPrimitive())
+      return type.getKind().name().toLowerCase(Locale.ROOT);
+    return switch (type.getKind()) {
+      case ARRAY -> {
+        String component = typeName(((ArrayType) type).getComponentType(), erased);
+        yield component == null ? null : component + "[]";
+      }
+      case DECLARED -> {
+        DeclaredType declared = (DeclaredType) type;
+        String name = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        if (erased || declared.getTypeArguments().isEmpty())
+          yield name;
+        List<String> arguments = new ArrayList<>();
+        for (TypeMirror argument : declared.getTypeArguments()) {
+          String argumentName = typeName(argument, false);
+          if (argumentName == null)
+            yield null;
+          arguments.add(argumentName);
+        }
+        yield name + "<" + String.join(", ", arguments) + ">";
+      }
+      case WILDCARD -> {
+        WildcardType wildcard = (WildcardType) type;
+        TypeMirror bound = wildcard.getExtendsBound() != null ? wildcard.getExtendsBound() : wildcard.getSuperBound();
+        if (bound == null)
+          yield "?";
+        String boundName = typeName(bound, false);
+        yield boundName == null ? null : (wildcard.getExtendsBound() != null ? "? extends " : "? super ") + boundName;
+      }
+      default -> null;
+    };
+  }
+
+}
@@ -0,0 +1,98 @@
+package me.jeremiah.data.storage;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Compares the resolved accessors every component now uses against the Field.get and Method.invoke calls they replaced.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AccessorBenchmark {
+
+  private BenchmarkEntry entry;
+  private Pair<ByteTranslatable, ByteTranslatable> serialized;
+  private Field idField;
+  private Field levelField;
+  private Method serializeMethod;
+  private Method deserializeMethod;
+  private FieldAccessor idAccessor;
+  private FieldAccessor levelAccessor;
+  private Function<Object, Pair<ByteTranslatable, ByteTranslatable>> serializer;
+  private Function<Object, BenchmarkEntry> deserializer;
+
+  @Setup(Level.Trial)
+  public void resolve() throws NoSuchFieldException {
+    entry = new BenchmarkEntry(42);
+    serialized = entry.serialize();
+    idField = BenchmarkEntry.class.getDeclaredField("id");
+    levelField = BenchmarkEntry.class.getDeclaredField("level");
+    idField.setAccessible(true);
+    levelField.setAccessible(true);
+    serializeMethod = ReflectionUtils.getSerializeMethod(BenchmarkEntry.class);
+    deserializeMethod = ReflectionUtils.getDeserializeMethod(BenchmarkEntry.class);
+    idAccessor = ReflectionUtils.getAccessor(idField);
+    levelAccessor = ReflectionUtils.getAccessor(levelField);
+    serializer = ReflectionUtils.getSerializer(BenchmarkEntry.class);
+    deserializer = ReflectionUtils.getDeserializer(BenchmarkEntry.class);
+  }
+
+  @Benchmark
+  public Object reflectiveFieldGet() throws IllegalAccessException {
+    return idField.get(entry);
+  }
+
+  @Benchmark
+  public Object accessorGet() {
+    return idAccessor.get(entry);
+  }
+
+  @Benchmark
+  public Object reflectiveSortedGet() throws IllegalAccessException {
+    return levelField.get(entry);
+  }
+
+  @Benchmark
+  public long accessorSortedGet() {
+    return levelAccessor.getLong(entry);
+  }
+
+  @Benchmark
+  public Object reflectiveSerialize() throws ReflectiveOperationException {
+    return serializeMethod.invoke(entry);
+  }
+
+  @Benchmark
+  public Object lambdaSerialize() {
+    return serializer.apply(entry);
+  }
+
+  @Benchmark
+  public Object reflectiveDeserialize() throws ReflectiveOperationException {
+    return deserializeMethod.invoke(null, serialized);
+  }
+
+  @Benchmark
+  public Object lambdaDeserialize() {
+    return deserializer.apply(serialized);
+  }
+
+}
@@ -0,0 +1,42 @@
+package me.jeremiah.data.storage;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+public class BenchmarkEntry {
+
+  @Deserializer
+  public static BenchmarkEntry deserialize(Pair<ByteTranslatable, ByteTranslatable> entry) {
+    ByteBuffer data = ByteBuffer.wrap(entry.right().asByteArray());
+    return new BenchmarkEntry(entry.left().asUUID(), data.getLong(), data.getInt());
+  }
+
+  @Indexable(id = "id")
+  private final UUID id;
+  private final long balance;
+  @Sorted("level")
+  private final int level;
+
+  public BenchmarkEntry(int i) {
+    this(new UUID(i * 31L, i), i * 1_000L, i % 100);
+  }
+
+  public BenchmarkEntry(UUID id, long balance, int level) {
+    this.id = id;
+    this.balance = balance;
+    this.level = level;
+  }
+
+  @Serializer
+  public Pair<ByteTranslatable, ByteTranslatable> serialize() {
+    byte[] data = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+      .putLong(balance)
+      .putInt(level)
+      .array();
+    return Pair.of(ByteTranslatable.fromUUID(id), ByteTranslatable.fromByteArray(data));
+  }
+
+}
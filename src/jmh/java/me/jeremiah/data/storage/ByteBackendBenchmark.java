@@ -0,0 +1,103 @@
+package me.jeremiah.data.storage;
+
+import me.jeremiah.data.storage.databases.AbstractDatabase;
+import me.jeremiah.data.storage.databases.byteoriented.H2;
+import me.jeremiah.data.storage.databases.byteoriented.LogStructured;
+import me.jeremiah.data.storage.databases.byteoriented.SQLite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ByteBackendBenchmark {
+
+  private static final String WORKING_DIRECTORY = "build/jmh-databases";
+
+  @Param({"LogStructured", "SQLite", "H2"})
+  private String backend;
+
+  @Param({"100000"})
+  private int entryCount;
+
+  private List<BenchmarkEntry> entries;
+  private String populatedName;
+  private String emptyName;
+  private int invocation;
+
+  @Setup(Level.Trial)
+  public void populate() throws IOException {
+    Files.createDirectories(Path.of(WORKING_DIRECTORY));
+    entries = IntStream.range(0, entryCount).mapToObj(BenchmarkEntry::new).toList();
+    populatedName = WORKING_DIRECTORY + "/populated-" + backend;
+    AbstractDatabase<BenchmarkEntry, ?> database = open(populatedName);
+    entries.forEach(database::add);
+    database.close();
+  }
+
+  @Setup(Level.Invocation)
+  public void nextEmptyDatabase() {
+    emptyName = WORKING_DIRECTORY + "/empty-" + backend + "-" + invocation++;
+  }
+
+  @Benchmark
+  public int save() {
+    AbstractDatabase<BenchmarkEntry, ?> database = open(emptyName);
+    entries.forEach(database::add);
+    database.close();
+    return entries.size();
+  }
+
+  @Benchmark
+  public int coldStart() {
+    AbstractDatabase<BenchmarkEntry, ?> database = open(populatedName);
+    int loaded = database.getEntries().size();
+    database.close();
+    return loaded;
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteDatabases() throws IOException {
+    Path directory = Path.of(WORKING_DIRECTORY);
+    if (!Files.exists(directory))
+      return;
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+        Files.delete(file);
+    }
+  }
+
+  private AbstractDatabase<BenchmarkEntry, ?> open(String name) {
+    DatabaseInfo info = new DatabaseInfo(null, 0, name, null, null);
+    return switch (backend) {
+      case "LogStructured" -> new LogStructured<>(info, BenchmarkEntry.class);
+      case "SQLite" -> new SQLite<>(info, BenchmarkEntry.class);
+      case "H2" -> new H2<>(info, BenchmarkEntry.class);
+      default -> throw new IllegalArgumentException("Unknown backend " + backend);
+    };
+  }
+
+}
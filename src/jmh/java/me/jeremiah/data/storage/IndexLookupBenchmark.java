@@ -0,0 +1,86 @@
+package me.jeremiah.data.storage;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.storage.databases.components.indexing.IndexedDatabaseComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Compares typed index lookups against the ByteTranslatable-keyed map every index used before.
+// Run with -prof gc to compare allocation rates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IndexLookupBenchmark {
+
+  @Param({"100000"})
+  private int entryCount;
+
+  private ScheduledExecutorService scheduler;
+  private IndexedDatabaseComponent<BenchmarkEntry> component;
+  private Map<ByteTranslatable, BenchmarkEntry> byteIndex;
+  private UUID[] ids;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void populate() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    component = new IndexedDatabaseComponent<>(scheduler, BenchmarkEntry.class);
+    component.setup(entryCount * 2);
+    byteIndex = new ConcurrentHashMap<>(entryCount * 2);
+
+    List<BenchmarkEntry> entries = IntStream.range(0, entryCount).mapToObj(BenchmarkEntry::new).toList();
+    ids = new UUID[entryCount];
+    for (int i = 0; i < entryCount; i++) {
+      BenchmarkEntry entry = entries.get(i);
+      component.add(entry);
+      ids[i] = new UUID(i * 31L, i);
+      byteIndex.put(ByteTranslatable.fromUUID(ids[i]), entry);
+    }
+  }
+
+  @Benchmark
+  public Object typedLookup() {
+    return component.getByIndex("id", nextId()).orElse(null);
+  }
+
+  @Benchmark
+  public Object byteTranslatableLookup() {
+    return byteIndex.get(ByteTranslatable.from(nextId()));
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    component.close();
+    scheduler.shutdown();
+  }
+
+  private UUID nextId() {
+    UUID id = ids[next];
+    next = next + 1 == ids.length ? 0 : next + 1;
+    return id;
+  }
+
+}
@@ -0,0 +1,178 @@
+package me.jeremiah.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static me.jeremiah.data.ByteWriter.CHAR;
+import static me.jeremiah.data.ByteWriter.DOUBLE;
+import static me.jeremiah.data.ByteWriter.FLOAT;
+import static me.jeremiah.data.ByteWriter.INT;
+import static me.jeremiah.data.ByteWriter.LONG;
+import static me.jeremiah.data.ByteWriter.SHORT;
+
+// Reads values written by ByteWriter in the same order, straight out of the source array without copying it.
+public final class ByteReader {
+
+  private final byte[] buffer;
+  private final int limit;
+  private int position;
+
+  public ByteReader(@NotNull byte[] buffer) {
+    this(buffer, 0, buffer.length);
+  }
+
+  public ByteReader(@NotNull ByteTranslatable data) {
+    this(data.asByteArray());
+  }
+
+  public ByteReader(@NotNull byte[] buffer, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > buffer.length)
+      throw new IndexOutOfBoundsException("Range %d+%d is outside an array of %d bytes".formatted(offset, length, buffer.length));
+    this.buffer = buffer;
+    this.position = offset;
+    this.limit = offset + length;
+  }
+
+  public int position() {
+    return position;
+  }
+
+  public int remaining() {
+    return limit - position;
+  }
+
+  public ByteReader skip(int bytes) {
+    require(bytes);
+    position += bytes;
+    return this;
+  }
+
+  public boolean readBoolean() {
+    return readByte() == 1;
+  }
+
+  public byte readByte() {
+    require(Byte.BYTES);
+    return buffer[position++];
+  }
+
+  public short readShort() {
+    require(Short.BYTES);
+    short value = (short) SHORT.get(buffer, position);
+    position += Short.BYTES;
+    return value;
+  }
+
+  public char readChar() {
+    require(Character.BYTES);
+    char value = (char) CHAR.get(buffer, position);
+    position += Character.BYTES;
+    return value;
+  }
+
+  public int readInt() {
+    require(Integer.BYTES);
+    int value = (int) INT.get(buffer, position);
+    position += Integer.BYTES;
+    return value;
+  }
+
+  public long readLong() {
+    require(Long.BYTES);
+    long value = (long) LONG.get(buffer, position);
+    position += Long.BYTES;
+    return value;
+  }
+
+  public float readFloat() {
+    require(Float.BYTES);
+    float value = (float) FLOAT.get(buffer, position);
+    position += Float.BYTES;
+    return value;
+  }
+
+  public double readDouble() {
+    require(Double.BYTES);
+    double value = (double) DOUBLE.get(buffer, position);
+    position += Double.BYTES;
+    return value;
+  }
+
+  public UUID readUUID() {
+    return new UUID(readLong(), readLong());
+  }
+
+  public String readString() {
+    int length = readInt();
+    if (length < 0)
+      return null;
+    require(length);
+    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  public Location readLocation() {
+    UUID world = readUUID();
+    double x = readDouble();
+    double y = readDouble();
+    double z = readDouble();
+    float yaw = readFloat();
+    float pitch = readFloat();
+    return new Location(Bukkit.getWorld(world), x, y, z, yaw, pitch);
+  }
+
+  public byte[] readBytes() {
+    int length = readArrayLength(Byte.BYTES);
+    byte[] values = new byte[length];
+    System.arraycopy(buffer, position, values, 0, length);
+    position += length;
+    return values;
+  }
+
+  public int[] readInts() {
+    int[] values = new int[readArrayLength(Integer.BYTES)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (int) INT.get(buffer, position);
+      position += Integer.BYTES;
+    }
+    return values;
+  }
+
+  public long[] readLongs() {
+    long[] values = new long[readArrayLength(Long.BYTES)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) LONG.get(buffer, position);
+      position += Long.BYTES;
+    }
+    return values;
+  }
+
+  public double[] readDoubles() {
+    double[] values = new double[readArrayLength(Double.BYTES)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (double) DOUBLE.get(buffer, position);
+      position += Double.BYTES;
+    }
+    return values;
+  }
+
+  // Checks the whole array fits before allocating it, so a corrupt length can't trigger a huge allocation.
+  private int readArrayLength(int elementBytes) {
+    int length = readInt();
+    if (length < 0)
+      throw new IllegalStateException("Negative array length " + length);
+    require((long) length * elementBytes);
+    return length;
+  }
+
+  private void require(long bytes) {
+    if (bytes > limit - position)
+      throw new IndexOutOfBoundsException("Needed %d bytes at position %d but only %d remain".formatted(bytes, position, limit - position));
+  }
+
+}
@@ -0,0 +1,247 @@
+package me.jeremiah.data;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.UUID;
+
+// Writes values back to back into one growable buffer, big-endian like ByteTranslatable, and is read back with ByteReader.
+// Strings and arrays are prefixed with their length, and a null string is written as length -1.
+public final class ByteWriter implements AutoCloseable {
+
+  static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle CHAR = MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle FLOAT = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+
+  private static final int DEFAULT_CAPACITY = 256;
+  // A local writer drops a buffer grown past this once released, so one oversized entry does not pin it for good.
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+  private static final ThreadLocal<ByteWriter> LOCAL = ThreadLocal.withInitial(() -> new ByteWriter(DEFAULT_CAPACITY));
+
+  private byte[] buffer;
+  private int position;
+  private boolean inUse;
+
+  public ByteWriter() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  // With the exact encoded size the buffer itself is handed out, so nothing is allocated besides it.
+  public ByteWriter(int capacity) {
+    this.buffer = new byte[capacity];
+  }
+
+  // The calling thread's reusable writer, so the only allocation left is the copy toByteArray makes.
+  // A writer still being filled higher up the stack is never handed out twice, a fresh one is returned instead.
+  // Open it in a try-with-resources block, so a serializer that throws before toByteArray still gives it back.
+  public static ByteWriter local() {
+    ByteWriter writer = LOCAL.get();
+    if (writer.inUse)
+      return new ByteWriter();
+    writer.inUse = true;
+    writer.position = 0;
+    return writer;
+  }
+
+  public int position() {
+    return position;
+  }
+
+  public ByteWriter writeBoolean(boolean value) {
+    return writeByte(value ? 1 : 0);
+  }
+
+  public ByteWriter writeByte(int value) {
+    ensureCapacity(Byte.BYTES);
+    buffer[position++] = (byte) value;
+    return this;
+  }
+
+  public ByteWriter writeShort(short value) {
+    ensureCapacity(Short.BYTES);
+    SHORT.set(buffer, position, value);
+    position += Short.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeChar(char value) {
+    ensureCapacity(Character.BYTES);
+    CHAR.set(buffer, position, value);
+    position += Character.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeInt(int value) {
+    ensureCapacity(Integer.BYTES);
+    INT.set(buffer, position, value);
+    position += Integer.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeLong(long value) {
+    ensureCapacity(Long.BYTES);
+    LONG.set(buffer, position, value);
+    position += Long.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeFloat(float value) {
+    ensureCapacity(Float.BYTES);
+    FLOAT.set(buffer, position, value);
+    position += Float.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeDouble(double value) {
+    ensureCapacity(Double.BYTES);
+    DOUBLE.set(buffer, position, value);
+    position += Double.BYTES;
+    return this;
+  }
+
+  public ByteWriter writeUUID(@NotNull UUID value) {
+    ensureCapacity(Long.BYTES * 2);
+    LONG.set(buffer, position, value.getMostSignificantBits());
+    LONG.set(buffer, position + Long.BYTES, value.getLeastSignificantBits());
+    position += Long.BYTES * 2;
+    return this;
+  }
+
+  // Encodes UTF-8 straight into the buffer rather than through String.getBytes.
+  public ByteWriter writeString(String value) {
+    if (value == null)
+      return writeInt(-1);
+    int length = value.length();
+    int encodedLength = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80)
+        encodedLength++;
+      else if (c < 0x800)
+        encodedLength += 2;
+      else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        encodedLength += 4;
+        i++;
+      } else if (Character.isSurrogate(c))
+        encodedLength++;
+      else
+        encodedLength += 3;
+    }
+    writeInt(encodedLength);
+    ensureCapacity(encodedLength);
+    byte[] buffer = this.buffer;
+    int position = this.position;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80)
+        buffer[position++] = (byte) c;
+      else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | c >> 6);
+        buffer[position++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+        buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c))
+        // Unpaired surrogates are replaced, matching String.getBytes.
+        buffer[position++] = '?';
+      else {
+        buffer[position++] = (byte) (0xE0 | c >> 12);
+        buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+        buffer[position++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+    this.position = position;
+    return this;
+  }
+
+  // Same layout as ByteTranslatable.fromLocation: world UID, x, y, z, yaw and pitch.
+  public ByteWriter writeLocation(@NotNull Location location) {
+    return writeUUID(location.getWorld().getUID())
+      .writeDouble(location.getX())
+      .writeDouble(location.getY())
+      .writeDouble(location.getZ())
+      .writeFloat(location.getYaw())
+      .writeFloat(location.getPitch());
+  }
+
+  public ByteWriter writeBytes(@NotNull byte[] values) {
+    writeInt(values.length);
+    ensureCapacity(values.length);
+    System.arraycopy(values, 0, buffer, position, values.length);
+    position += values.length;
+    return this;
+  }
+
+  public ByteWriter writeInts(@NotNull int[] values) {
+    writeInt(values.length);
+    ensureCapacity(values.length * Integer.BYTES);
+    for (int value : values) {
+      INT.set(buffer, position, value);
+      position += Integer.BYTES;
+    }
+    return this;
+  }
+
+  public ByteWriter writeLongs(@NotNull long[] values) {
+    writeInt(values.length);
+    ensureCapacity(values.length * Long.BYTES);
+    for (long value : values) {
+      LONG.set(buffer, position, value);
+      position += Long.BYTES;
+    }
+    return this;
+  }
+
+  public ByteWriter writeDoubles(@NotNull double[] values) {
+    writeInt(values.length);
+    ensureCapacity(values.length * Double.BYTES);
+    for (double value : values) {
+      DOUBLE.set(buffer, position, value);
+      position += Double.BYTES;
+    }
+    return this;
+  }
+
+  // A writer is done once this is called: an exactly full buffer is handed out as is, and a local writer goes back to its thread.
+  public byte[] toByteArray() {
+    try {
+      return position == buffer.length && this != LOCAL.get() ? buffer : Arrays.copyOf(buffer, position);
+    } finally {
+      release();
+    }
+  }
+
+  public ByteTranslatable toByteTranslatable() {
+    return ByteTranslatable.fromByteArray(toByteArray());
+  }
+
+  // Gives a local writer back to its thread without producing bytes, and does nothing once it has been given back.
+  @Override
+  public void close() {
+    release();
+  }
+
+  private void release() {
+    if (!inUse)
+      return;
+    inUse = false;
+    if (buffer.length > MAX_RETAINED_CAPACITY)
+      buffer = new byte[DEFAULT_CAPACITY];
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (position + bytes > buffer.length)
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+  }
+
+}
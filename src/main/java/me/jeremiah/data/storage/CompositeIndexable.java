@@ -0,0 +1,21 @@
+package me.jeremiah.data.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(CompositeIndexables.class)
+public @interface CompositeIndexable {
+
+  String id();
+
+  // Names of the declared fields that make up the key, in lookup order.
+  String[] fields();
+
+  boolean unique() default true;
+
+}
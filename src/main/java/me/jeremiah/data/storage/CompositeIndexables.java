@@ -0,0 +1,14 @@
+package me.jeremiah.data.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CompositeIndexables {
+
+  CompositeIndexable[] value();
+
+}
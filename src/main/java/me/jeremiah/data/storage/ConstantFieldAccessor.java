@@ -0,0 +1,74 @@
+package me.jeremiah.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+// A template that is never loaded as itself. ReflectionUtils defines a hidden copy of it per field, with the field and
+// its getters as class data, for fields no generated schema covers. Each copy holds its getters in static final
+// fields, which the JIT treats as constants and inlines through like a plain field read.
+final class ConstantFieldAccessor implements FieldAccessor {
+
+  private static final Field FIELD;
+  private static final MethodHandle GETTER;
+  private static final MethodHandle LONG_GETTER;
+  private static final MethodHandle DOUBLE_GETTER;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      FIELD = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, Field.class, 0);
+      GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+      LONG_GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 2);
+      DOUBLE_GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 3);
+    } catch (IllegalAccessException exception) {
+      throw new ExceptionInInitializerError(exception);
+    }
+  }
+
+  @Override
+  public Class<?> getType() {
+    return FIELD.getType();
+  }
+
+  @Override
+  public Object get(@NotNull Object target) {
+    try {
+      return (Object) GETTER.invokeExact(target);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable throwable) {
+      throw new RuntimeException("Failed to access field " + FIELD, throwable);
+    }
+  }
+
+  @Override
+  public long getLong(@NotNull Object target) {
+    if (LONG_GETTER == null)
+      return FieldAccessor.super.getLong(target);
+    try {
+      return (long) LONG_GETTER.invokeExact(target);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable throwable) {
+      throw new RuntimeException("Failed to access field " + FIELD, throwable);
+    }
+  }
+
+  @Override
+  public double getDouble(@NotNull Object target) {
+    if (DOUBLE_GETTER == null)
+      return FieldAccessor.super.getDouble(target);
+    try {
+      return (double) DOUBLE_GETTER.invokeExact(target);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable throwable) {
+      throw new RuntimeException("Failed to access field " + FIELD, throwable);
+    }
+  }
+
+}
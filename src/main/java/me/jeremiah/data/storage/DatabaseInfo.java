@@ -1,5 +1,9 @@
 package me.jeremiah.data.storage;
 
+import me.jeremiah.data.storage.codecs.EntryCodec;
+import me.jeremiah.data.storage.codecs.JavaEntryCodec;
+
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 
 public class DatabaseInfo {
@@ -15,6 +19,26 @@ public class DatabaseInfo {
   private long autoSaveInterval = 300;
   private TimeUnit autoSaveTimeUnit = TimeUnit.SECONDS;
 
+  private int bulkWriteSize = 1000;
+  private int chunkSize = 1000;
+
+  private int fetchSize = 1000;
+  private int pipelineCapacity = 4096;
+  private int pipelineWorkers = Runtime.getRuntime().availableProcessors();
+
+  private int saveConnections = 1;
+  private int loadConnections = 1;
+
+  private Path journalDirectory = null;
+  private int journalSegmentSize = 64 * 1024 * 1024;
+
+  private int logSegmentSize = 64 * 1024 * 1024;
+
+  private boolean lazyLoading = false;
+  private int maxCachedEntries = 10000;
+
+  private EntryCodec entryCodec = new JavaEntryCodec();
+
   public DatabaseInfo(String databaseAddress, int databasePort, String name, String username, String password) {
     this.address = databaseAddress;
     this.port = databasePort;
@@ -63,4 +87,108 @@ public class DatabaseInfo {
     return autoSaveTimeUnit;
   }
 
+  public void setBulkWriteSize(int bulkWriteSize) {
+    this.bulkWriteSize = bulkWriteSize;
+  }
+
+  public int getBulkWriteSize() {
+    return bulkWriteSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setPipelineCapacity(int pipelineCapacity) {
+    this.pipelineCapacity = pipelineCapacity;
+  }
+
+  public int getPipelineCapacity() {
+    return pipelineCapacity;
+  }
+
+  public void setPipelineWorkers(int pipelineWorkers) {
+    this.pipelineWorkers = pipelineWorkers;
+  }
+
+  public int getPipelineWorkers() {
+    return pipelineWorkers;
+  }
+
+  public void setSaveConnections(int saveConnections) {
+    this.saveConnections = saveConnections;
+  }
+
+  public int getSaveConnections() {
+    return saveConnections;
+  }
+
+  public void setLoadConnections(int loadConnections) {
+    this.loadConnections = loadConnections;
+  }
+
+  public int getLoadConnections() {
+    return loadConnections;
+  }
+
+  public void setJournalDirectory(Path journalDirectory) {
+    this.journalDirectory = journalDirectory;
+  }
+
+  public Path getJournalDirectory() {
+    return journalDirectory;
+  }
+
+  public void setJournalSegmentSize(int journalSegmentSize) {
+    this.journalSegmentSize = journalSegmentSize;
+  }
+
+  public int getJournalSegmentSize() {
+    return journalSegmentSize;
+  }
+
+  public void setLogSegmentSize(int logSegmentSize) {
+    this.logSegmentSize = logSegmentSize;
+  }
+
+  public int getLogSegmentSize() {
+    return logSegmentSize;
+  }
+
+  public void setLazyLoading(boolean lazyLoading) {
+    this.lazyLoading = lazyLoading;
+  }
+
+  public boolean isLazyLoading() {
+    return lazyLoading;
+  }
+
+  public void setMaxCachedEntries(int maxCachedEntries) {
+    this.maxCachedEntries = maxCachedEntries;
+  }
+
+  public int getMaxCachedEntries() {
+    return maxCachedEntries;
+  }
+
+  public void setEntryCodec(EntryCodec entryCodec) {
+    this.entryCodec = entryCodec;
+  }
+
+  public EntryCodec getEntryCodec() {
+    return entryCodec;
+  }
+
 }
@@ -0,0 +1,22 @@
+package me.jeremiah.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+// Implemented by the <Entry>Schema classes the schema processor generates next to each annotated entry class.
+// ReflectionUtils prefers a schema over reflection whenever one is on the classpath.
+public interface EntrySchema<ENTRY> {
+
+  // Returns null for fields the schema does not cover.
+  FieldAccessor accessor(@NotNull String field);
+
+  default Function<Object, ?> serializer() {
+    return null;
+  }
+
+  default Function<Object, ?> deserializer() {
+    return null;
+  }
+
+}
@@ -0,0 +1,26 @@
+package me.jeremiah.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+// Reads one field of an entry, either through a generated schema or through a hidden class holding constant handles.
+public interface FieldAccessor {
+
+  Class<?> getType();
+
+  Object get(@NotNull Object target);
+
+  default long getLong(@NotNull Object target) {
+    Object value = get(target);
+    return value instanceof Character character ? character : ((Number) value).longValue();
+  }
+
+  default double getDouble(@NotNull Object target) {
+    return ((Number) get(target)).doubleValue();
+  }
+
+  // Orders two values of the field the way sorted fields are ranked, highest first.
+  default int compare(Object value1, Object value2) {
+    return ReflectionUtils.compareSortedValues(value1, value2);
+  }
+
+}
@@ -0,0 +1,141 @@
+package me.jeremiah.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class Handoff<T> implements AutoCloseable {
+
+  private static final Object END = new Object();
+
+  private final BlockingQueue<Object> queue;
+  private final ExecutorService executor;
+  private final List<Future<?>> tasks;
+  private volatile boolean closed = false;
+
+  private Handoff(int capacity, int threads) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.executor = Executors.newFixedThreadPool(threads);
+    this.tasks = new ArrayList<>(threads);
+  }
+
+  public static <T> Handoff<T> toWorkers(int capacity, int workers, @NotNull Consumer<T> consumer) {
+    Handoff<T> handoff = new Handoff<>(capacity, workers);
+    for (int i = 0; i < workers; i++)
+      handoff.tasks.add(handoff.executor.submit(() -> {
+        for (T item; (item = handoff.take()) != null; )
+          consumer.accept(item);
+        return null;
+      }));
+    return handoff;
+  }
+
+  public static <T> Handoff<T> fromProducer(int capacity, @NotNull Consumer<Consumer<T>> producer) {
+    Handoff<T> handoff = new Handoff<>(capacity, 1);
+    handoff.tasks.add(handoff.executor.submit(() -> {
+      producer.accept(handoff::put);
+      handoff.offer(END);
+      return null;
+    }));
+    return handoff;
+  }
+
+  // Maps the items on the handoff's own workers rather than a shared pool, so a consumer that falls behind only parks
+  // these threads. Workers claim items one at a time and the last one to run out ends the stream.
+  public static <S, T> Handoff<T> fromWorkers(int capacity, int workers, @NotNull List<S> items, @NotNull Function<S, T> mapper) {
+    int threads = Math.max(1, Math.min(workers, items.size()));
+    Handoff<T> handoff = new Handoff<>(capacity, threads);
+    AtomicInteger next = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger(threads);
+    for (int i = 0; i < threads; i++)
+      handoff.tasks.add(handoff.executor.submit(() -> {
+        for (int index; (index = next.getAndIncrement()) < items.size(); )
+          handoff.offer(mapper.apply(items.get(index)));
+        if (running.decrementAndGet() == 0)
+          handoff.offer(END);
+        return null;
+      }));
+    return handoff;
+  }
+
+  public void put(@NotNull T item) {
+    offer(item);
+  }
+
+  @SuppressWarnings("unchecked")
+  public T take() {
+    try {
+      Object item;
+      while ((item = queue.poll(50, TimeUnit.MILLISECONDS)) == null)
+        checkTasks();
+      if (item == END) {
+        queue.offer(END);
+        return null;
+      }
+      return (T) item;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for the next item");
+    }
+  }
+
+  public void finish() {
+    offer(END);
+    try {
+      for (Future<?> task : tasks)
+        task.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for workers to finish");
+    } catch (ExecutionException exception) {
+      throw unwrap(exception);
+    }
+  }
+
+  private void offer(Object item) {
+    try {
+      while (!queue.offer(item, 50, TimeUnit.MILLISECONDS))
+        checkTasks();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while handing off an item");
+    }
+  }
+
+  private void checkTasks() throws InterruptedException {
+    if (closed)
+      throw new CancellationException("Handoff was closed");
+    for (Future<?> task : tasks)
+      if (task.isDone())
+        try {
+          task.get();
+        } catch (ExecutionException exception) {
+          throw unwrap(exception);
+        }
+  }
+
+  private static RuntimeException unwrap(ExecutionException exception) {
+    if (exception.getCause() instanceof RuntimeException cause)
+      return cause;
+    return new RuntimeException(exception.getCause());
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    executor.shutdownNow();
+  }
+
+}
@@ -11,4 +11,12 @@ public @interface Indexable {
 
   String id();
 
+  boolean primary() default false;
+
+  // Non-unique indexes file every entry sharing a key and are read with getAllByIndex and countByIndex.
+  boolean unique() default true;
+
+  // String indexes can also be searched by prefix and without case through findByPrefix and getByIndexIgnoreCase.
+  boolean searchable() default false;
+
 }
@@ -1,29 +1,70 @@
 package me.jeremiah.data.storage;
 
-import me.jeremiah.data.ByteTranslatable;
 import me.jeremiah.data.storage.databases.components.indexing.Index;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class ReflectionUtils {
 
-  @SuppressWarnings("unchecked")
-  public static <T> T serialize(Method serializeMethod, Object object) {
-    try {
-      return (T) serializeMethod.invoke(object);
-    } catch (ReflectiveOperationException exception) {
-      throw new RuntimeException("Failed to serialize object", exception);
+  private static final byte[] ACCESSOR_TEMPLATE = readTemplate(ConstantFieldAccessor.class);
+
+  private static final ClassValue<EntrySchema<?>> SCHEMAS = new ClassValue<>() {
+    @Override
+    protected EntrySchema<?> computeValue(Class<?> entryClass) {
+      String name = entryClass.getName();
+      int packageEnd = name.lastIndexOf('.') + 1;
+      String schemaName = name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + "Schema";
+      try {
+        Class<?> schemaClass = Class.forName(schemaName, true, entryClass.getClassLoader());
+        return (EntrySchema<?>) schemaClass.getConstructor().newInstance();
+      } catch (ClassNotFoundException exception) {
+        return null;
+      } catch (ReflectiveOperationException exception) {
+        throw new RuntimeException("Failed to load schema " + schemaName, exception);
+      }
     }
+  };
+
+  private static byte[] readTemplate(Class<?> template) {
+    try (InputStream bytes = template.getResourceAsStream(template.getSimpleName() + ".class")) {
+      if (bytes == null)
+        throw new IllegalStateException("Missing class file for " + template.getName());
+      return bytes.readAllBytes();
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to read class file for " + template.getName(), exception);
+    }
+  }
+
+  // The schema generated for the entry class at compile time, or null when it was compiled without the schema processor.
+  public static EntrySchema<?> getSchema(@NotNull Class<?> entryClass) {
+    return SCHEMAS.get(entryClass);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> Function<Object, T> getSerializer(Class<?> serializerClass) {
+    EntrySchema<?> schema = getSchema(serializerClass);
+    if (schema != null && schema.serializer() != null)
+      return (Function<Object, T>) schema.serializer();
+    Method method = getSerializeMethod(serializerClass);
+    return toFunction(method, MethodType.methodType(method.getReturnType(), serializerClass));
   }
 
   public static Method getSerializeMethod(Class<?> serializerClass) {
@@ -40,11 +81,27 @@ public final class ReflectionUtils {
   }
 
   @SuppressWarnings("unchecked")
-  public static <T> T deserialize(Method deserializeMethod, Object arg) {
+  public static <T> Function<Object, T> getDeserializer(Class<?> deserializerClass) {
+    EntrySchema<?> schema = getSchema(deserializerClass);
+    if (schema != null && schema.deserializer() != null)
+      return (Function<Object, T>) schema.deserializer();
+    Method method = getDeserializeMethod(deserializerClass);
+    if (method.getParameterCount() != 1)
+      throw new IllegalArgumentException("Method annotated with @Deserializer within %s.class must take one argument".formatted(deserializerClass.getName()));
+    return toFunction(method, MethodType.methodType(method.getReturnType(), method.getParameterTypes()[0]));
+  }
+
+  // Spins a Function implementation that calls the method directly, so the JIT can inline it like any other call.
+  @SuppressWarnings("unchecked")
+  private static <T> Function<Object, T> toFunction(Method method, MethodType instantiatedType) {
     try {
-      return (T) deserializeMethod.invoke(null, arg);
-    } catch (ReflectiveOperationException exception) {
-      throw new RuntimeException("Failed to deserialize object", exception);
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+      MethodHandle implementation = lookup.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+        MethodType.methodType(Object.class, Object.class), implementation, instantiatedType.wrap());
+      return (Function<Object, T>) site.getTarget().invokeExact();
+    } catch (Throwable throwable) {
+      throw new RuntimeException("Failed to create accessor for " + method, throwable);
     }
   }
 
@@ -61,69 +118,63 @@ public final class ReflectionUtils {
     throw new IllegalArgumentException("Failed to find a method annotated with @Deserializer within %s.class".formatted(deserializerClass.getName()));
   }
 
-  public static ByteTranslatable getIndex(Field field, Object object) {
+  public static FieldAccessor getAccessor(@NotNull Field field) {
+    EntrySchema<?> schema = getSchema(field.getDeclaringClass());
+    FieldAccessor accessor = schema == null ? null : schema.accessor(field.getName());
+    return accessor != null ? accessor : spinAccessor(field);
+  }
+
+  // Defines a hidden copy of ConstantFieldAccessor for the field, so its getters become constants of their own class.
+  private static FieldAccessor spinAccessor(Field field) {
+    Class<?> type = field.getType();
     try {
-      Object value = field.get(object);
-      return ByteTranslatable.from(value);
-    } catch (IllegalAccessException exception) {
-      throw new RuntimeException("Failed to access index field", exception);
+      MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+      MethodHandle longGetter = type == long.class || type == int.class || type == short.class || type == byte.class || type == char.class
+        ? getter.asType(MethodType.methodType(long.class, Object.class))
+        : null;
+      MethodHandle doubleGetter = type == double.class || type == float.class
+        ? getter.asType(MethodType.methodType(double.class, Object.class))
+        : null;
+      List<Object> classData = Arrays.asList(field, getter.asType(MethodType.methodType(Object.class, Object.class)), longGetter, doubleGetter);
+      MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClassWithClassData(ACCESSOR_TEMPLATE, classData, true);
+      return (FieldAccessor) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+    } catch (Throwable throwable) {
+      throw new RuntimeException("Failed to create accessor for field " + field, throwable);
     }
   }
 
   public static List<Index> getIndexes(Class<?> serializableClass) {
-    return getAnnotatedObjects(Arrays.asList(serializableClass.getDeclaredFields()), Indexable.class)
-      .map(field -> new Index(field.getAnnotation(Indexable.class).id(), field))
+    List<Index> indexes = getAnnotatedObjects(Arrays.asList(serializableClass.getDeclaredFields()), Indexable.class)
+      .map(field -> {
+        Indexable indexable = field.getAnnotation(Indexable.class);
+        return new Index(indexable.id(), indexable.primary(), indexable.unique(), indexable.searchable(), field);
+      })
       .collect(Collectors.toList());
+    for (CompositeIndexable composite : serializableClass.getAnnotationsByType(CompositeIndexable.class)) {
+      if (composite.fields().length < 2)
+        throw new IllegalArgumentException("Composite index %s within %s.class needs at least two fields".formatted(composite.id(), serializableClass.getName()));
+      Field[] fields = new Field[composite.fields().length];
+      for (int i = 0; i < fields.length; i++)
+        try {
+          fields[i] = serializableClass.getDeclaredField(composite.fields()[i]);
+          fields[i].setAccessible(true);
+        } catch (NoSuchFieldException exception) {
+          throw new IllegalArgumentException("Failed to find field %s for composite index %s within %s.class".formatted(composite.fields()[i], composite.id(), serializableClass.getName()), exception);
+        }
+      indexes.add(new Index(composite.id(), composite.unique(), fields));
+    }
+    return indexes;
   }
 
   @SuppressWarnings("unchecked")
-  public static <T> int compareSortedFields(@NotNull Field field, @NotNull T sorted1, @NotNull T sorted2) {
-    Object value1, value2;
-    try {
-      value1 = field.get(sorted1);
-      value2 = field.get(sorted2);
-    } catch (IllegalAccessException exception) {
-      throw new RuntimeException("Failed to access field", exception);
-    }
-
+  public static int compareSortedValues(Object value1, Object value2) {
     if (value1 == null && value2 == null)
       return 0;
     if (value1 == null)
       return -1;
     if (value2 == null)
       return 1;
-
-    Class<?> type = field.getType();
-
-    if (type.isPrimitive())
-      return compareAsPrimitive(type, value1, value2) * -1;
-
-    if (Comparable.class.isAssignableFrom(type)) {
-      Comparable<Object> comparable1 = (Comparable<Object>) value1;
-      return comparable1.compareTo(value2) * -1;
-    }
-
-    throw new IllegalArgumentException("Field type " + type.getName() + " must be primitive or implement Comparable");
-  }
-
-  private static int compareAsPrimitive(Class<?> type, Object value1, Object value2) {
-    if (type == boolean.class)
-      return Boolean.compare((boolean) value1, (boolean) value2);
-    if (type == byte.class)
-      return Byte.compare((byte) value1, (byte) value2);
-    if (type == short.class)
-      return Short.compare((short) value1, (short) value2);
-    if (type == int.class)
-      return Integer.compare((int) value1, (int) value2);
-    if (type == long.class)
-      return Long.compare((long) value1, (long) value2);
-    if (type == float.class)
-      return Float.compare((float) value1, (float) value2);
-    if (type == double.class)
-      return Double.compare((double) value1, (double) value2);
-    if (type == char.class)
-      return Character.compare((char) value1, (char) value2);
-    throw new IllegalArgumentException("Unsupported primitive type: " + type.getName());
+    return ((Comparable<Object>) value1).compareTo(value2) * -1;
   }
 
   public static Map<String, Field> getSortedFields(Class<?> serializableClass) {
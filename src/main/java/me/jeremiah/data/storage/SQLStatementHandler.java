@@ -1,6 +1,7 @@
 package me.jeremiah.data.storage;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,7 +11,20 @@ import java.sql.SQLException;
 public record SQLStatementHandler(@NotNull String createTableStatement,
                                   @NotNull String entryCountLookupStatement,
                                   @NotNull String loadEntryStatement,
-                                  @NotNull String saveEntryStatement) {
+                                  @NotNull String saveEntryStatement,
+                                  @NotNull String deleteEntryStatement,
+                                  @Nullable String loadSingleEntryStatement,
+                                  @Nullable String loadEntryRangeStatement,
+                                  @Nullable String loadEntryTailStatement,
+                                  @Nullable String loadEntryIdAtOffsetStatement) {
+
+  public SQLStatementHandler(@NotNull String createTableStatement,
+                             @NotNull String entryCountLookupStatement,
+                             @NotNull String loadEntryStatement,
+                             @NotNull String saveEntryStatement,
+                             @NotNull String deleteEntryStatement) {
+    this(createTableStatement, entryCountLookupStatement, loadEntryStatement, saveEntryStatement, deleteEntryStatement, null, null, null, null);
+  }
 
   public void executeCreateTableStatement(@NotNull Connection connection) throws SQLException {
     connection.createStatement().execute(createTableStatement);
@@ -26,8 +40,47 @@ public record SQLStatementHandler(@NotNull String createTableStatement,
     return connection.prepareStatement(loadEntryStatement).executeQuery();
   }
 
+  public PreparedStatement getStreamingLoadEntryStatement(@NotNull Connection connection, int fetchSize) throws SQLException {
+    PreparedStatement loadStatement = connection.prepareStatement(loadEntryStatement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    loadStatement.setFetchSize(fetchSize);
+    return loadStatement;
+  }
+
+  public PreparedStatement getStreamingLoadEntryRangeStatement(@NotNull Connection connection, int fetchSize, @NotNull byte[] from, @Nullable byte[] to) throws SQLException {
+    if (loadEntryRangeStatement == null || loadEntryTailStatement == null)
+      throw new UnsupportedOperationException("Range loads are not supported by this database");
+    PreparedStatement loadStatement = connection.prepareStatement(to == null ? loadEntryTailStatement : loadEntryRangeStatement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    loadStatement.setFetchSize(fetchSize);
+    loadStatement.setBytes(1, from);
+    if (to != null)
+      loadStatement.setBytes(2, to);
+    return loadStatement;
+  }
+
+  // The id found at the offset in entry_id order, or null past the last row.
+  public byte[] handleEntryIdAtOffset(@NotNull Connection connection, int offset) throws SQLException {
+    if (loadEntryIdAtOffsetStatement == null)
+      throw new UnsupportedOperationException("Range loads are not supported by this database");
+    try (PreparedStatement lookupStatement = connection.prepareStatement(loadEntryIdAtOffsetStatement)) {
+      lookupStatement.setInt(1, offset);
+      try (ResultSet resultSet = lookupStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getBytes(1) : null;
+      }
+    }
+  }
+
+  public PreparedStatement getLoadSingleEntryStatement(@NotNull Connection connection) throws SQLException {
+    if (loadSingleEntryStatement == null)
+      throw new UnsupportedOperationException("Single entry lookups are not supported by this database");
+    return connection.prepareStatement(loadSingleEntryStatement);
+  }
+
   public PreparedStatement getSaveEntryStatement(@NotNull Connection connection) throws SQLException {
     return connection.prepareStatement(saveEntryStatement);
   }
 
+  public PreparedStatement getDeleteEntryStatement(@NotNull Connection connection) throws SQLException {
+    return connection.prepareStatement(deleteEntryStatement);
+  }
+
 }
@@ -0,0 +1,20 @@
+package me.jeremiah.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public record SaveReport(@NotNull List<Partition> partitions) {
+
+  public record Partition(int index, int entries, long nanos) {
+  }
+
+  public int entries() {
+    return partitions.stream().mapToInt(Partition::entries).sum();
+  }
+
+  public long slowestNanos() {
+    return partitions.stream().mapToLong(Partition::nanos).max().orElse(0);
+  }
+
+}
@@ -11,4 +11,7 @@ public @interface Sorted {
 
   String value();
 
+  // Keeps only the best entries when positive, otherwise every entry is sorted.
+  int topK() default 0;
+
 }
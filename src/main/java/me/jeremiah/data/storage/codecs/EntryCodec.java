@@ -0,0 +1,25 @@
+package me.jeremiah.data.storage.codecs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Turns entries into bytes for the object-oriented layouts, set through DatabaseInfo.setEntryCodec.
+public interface EntryCodec {
+
+  byte[] encode(@NotNull Object entry);
+
+  Object decode(@NotNull byte[] data);
+
+  // Writes every entry back to back into one array, for layouts that store everything as a single value.
+  byte[] encodeAll(@NotNull Collection<?> entries);
+
+  void decodeAll(@NotNull byte[] data, @NotNull Consumer<Object> consumer);
+
+  // Whether the data was written by an older codec and should be rewritten in this one's format.
+  default boolean isOutdated(@NotNull byte[] data) {
+    return false;
+  }
+
+}
@@ -0,0 +1,60 @@
+package me.jeremiah.data.storage.codecs;
+
+import me.jeremiah.data.ByteTranslatable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Built-in Java serialization, the format every object-oriented database wrote before codecs were pluggable.
+public final class JavaEntryCodec implements EntryCodec {
+
+  static boolean isJavaSerialized(@NotNull byte[] data) {
+    return data.length >= 2 && (short) ((data[0] & 0xFF) << 8 | data[1] & 0xFF) == ObjectStreamConstants.STREAM_MAGIC;
+  }
+
+  @Override
+  public byte[] encode(@NotNull Object entry) {
+    return ByteTranslatable.fromSerializable((Serializable) entry).asByteArray();
+  }
+
+  @Override
+  public Object decode(@NotNull byte[] data) {
+    return ByteTranslatable.fromByteArray(data).asSerializable();
+  }
+
+  @Override
+  public byte[] encodeAll(@NotNull Collection<?> entries) {
+    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+         ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
+      for (Object entry : entries)
+        objectStream.writeObject(entry);
+      objectStream.flush();
+      return byteStream.toByteArray();
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to serialize entries", exception);
+    }
+  }
+
+  @Override
+  public void decodeAll(@NotNull byte[] data, @NotNull Consumer<Object> consumer) {
+    if (data.length == 0)
+      return;
+    try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      while (true)
+        consumer.accept(inputStream.readObject());
+    } catch (EOFException ignored) {
+    } catch (IOException | ClassNotFoundException exception) {
+      throw new RuntimeException("Failed to deserialize entries", exception);
+    }
+  }
+
+}
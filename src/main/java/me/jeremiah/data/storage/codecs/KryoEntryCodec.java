@@ -0,0 +1,88 @@
+package me.jeremiah.data.storage.codecs;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import org.jetbrains.annotations.NotNull;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Kryo serialization, which skips the class descriptors Java serialization repeats in every row.
+// Registered classes are written as small ids in registration order, so that order must stay stable once data is saved.
+// Rows still in Java serialization are read through JavaEntryCodec and reported as outdated so they get rewritten.
+public final class KryoEntryCodec implements EntryCodec {
+
+  private static final int BUFFER_SIZE = 4096;
+  private static final int BULK_BUFFER_SIZE = 64 * 1024;
+
+  private final List<Class<?>> registeredClasses;
+  private final JavaEntryCodec legacyCodec = new JavaEntryCodec();
+
+  // Kryo instances are not thread-safe, so every worker keeps its own along with a reusable buffer.
+  private final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(this::createKryo);
+  private final ThreadLocal<Output> output = ThreadLocal.withInitial(() -> new Output(BUFFER_SIZE, -1));
+  private final ThreadLocal<Input> input = ThreadLocal.withInitial(Input::new);
+
+  public KryoEntryCodec(@NotNull Class<?>... registeredClasses) {
+    this.registeredClasses = List.of(registeredClasses);
+  }
+
+  private Kryo createKryo() {
+    Kryo kryo = new Kryo();
+    kryo.setRegistrationRequired(false);
+    // Entries rarely have a no-argument constructor, so fall back to creating them without one.
+    kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+    for (Class<?> registeredClass : registeredClasses)
+      kryo.register(registeredClass);
+    return kryo;
+  }
+
+  @Override
+  public byte[] encode(@NotNull Object entry) {
+    Output output = this.output.get();
+    output.setPosition(0);
+    kryo.get().writeClassAndObject(output, entry);
+    return output.toBytes();
+  }
+
+  @Override
+  public Object decode(@NotNull byte[] data) {
+    if (JavaEntryCodec.isJavaSerialized(data))
+      return legacyCodec.decode(data);
+    Input input = this.input.get();
+    input.setBuffer(data);
+    return kryo.get().readClassAndObject(input);
+  }
+
+  // Bulk writes get their own buffer, so a worker does not hold on to one sized for every entry at once.
+  @Override
+  public byte[] encodeAll(@NotNull Collection<?> entries) {
+    Kryo kryo = this.kryo.get();
+    Output output = new Output(BULK_BUFFER_SIZE, -1);
+    for (Object entry : entries)
+      kryo.writeClassAndObject(output, entry);
+    return output.toBytes();
+  }
+
+  @Override
+  public void decodeAll(@NotNull byte[] data, @NotNull Consumer<Object> consumer) {
+    if (JavaEntryCodec.isJavaSerialized(data)) {
+      legacyCodec.decodeAll(data, consumer);
+      return;
+    }
+    Kryo kryo = this.kryo.get();
+    Input input = new Input(data);
+    while (input.position() < input.limit())
+      consumer.accept(kryo.readClassAndObject(input));
+  }
+
+  @Override
+  public boolean isOutdated(@NotNull byte[] data) {
+    return JavaEntryCodec.isJavaSerialized(data);
+  }
+
+}
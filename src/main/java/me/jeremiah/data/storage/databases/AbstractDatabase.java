@@ -1,21 +1,36 @@
 package me.jeremiah.data.storage.databases;
 
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
 import me.jeremiah.data.storage.Dirtyable;
 import me.jeremiah.data.storage.databases.components.indexing.IndexedDatabaseComponent;
+import me.jeremiah.data.storage.databases.components.journaling.JournalDatabaseComponent;
 import me.jeremiah.data.storage.databases.components.sorting.SortedDatabaseComponent;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,40 +40,182 @@ public abstract class AbstractDatabase<ENTRY, INTERNAL_STORAGE> implements Close
 
   private final DatabaseInfo info;
   protected final boolean useDirtyable;
+  private final boolean lazy;
   private ScheduledFuture<?> autoSaveTask;
 
   protected Set<ENTRY> entries;
+  private Set<ENTRY> pendingSaves;
+  private Set<ENTRY> pendingRemovals;
+  // Ids of the pending removals, so lazy cache misses can skip removed entries without a scan.
+  private Set<ByteTranslatable> pendingRemovalIds;
+  // Cached entries in access order, each with the stamp of its last use. Guards pinned and useCount as well.
+  private Map<ENTRY, Long> recentlyUsed;
+  // Entries an update is running on, which eviction leaves alone. Keyed by identity as the update may change their hash.
+  private Map<ENTRY, Integer> pinned;
+  private long useCount;
+  private final AtomicBoolean evictionQueued = new AtomicBoolean();
+  // Set while setup loads and replays entries, which the sorted trees pick up in one rebuild afterwards.
+  private volatile boolean loading;
 
   private final IndexedDatabaseComponent<ENTRY> indexedDatabaseComponent;
   private final SortedDatabaseComponent<ENTRY> sortedDatabaseComponent;
+  private final JournalDatabaseComponent<ENTRY> journalDatabaseComponent;
 
   protected AbstractDatabase(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     this.scheduler = Executors.newSingleThreadScheduledExecutor();
     this.info = info;
     this.useDirtyable = Dirtyable.class.isAssignableFrom(entryClass);
+    this.lazy = info.isLazyLoading();
     this.indexedDatabaseComponent = new IndexedDatabaseComponent<>(scheduler, entryClass);
-    this.sortedDatabaseComponent = new SortedDatabaseComponent<>(scheduler, entryClass);
+    this.sortedDatabaseComponent = new SortedDatabaseComponent<>(scheduler, entryClass, () -> entries);
+    this.journalDatabaseComponent = new JournalDatabaseComponent<>(scheduler, info, this::encodeJournalEntry, this::getEntryId);
+  }
+
+  protected final ScheduledExecutorService getScheduler() {
+    return scheduler;
   }
 
   protected abstract int lookupEntryCount();
 
   protected void setup() {
-    int initialCapacity = lookupEntryCount() * 2;
+    if (lazy && !supportsEntryLookup())
+      throw new UnsupportedOperationException("Lazy loading is not supported by " + getClass().getSimpleName());
+    int initialCapacity = (lazy ? info.getMaxCachedEntries() : lookupEntryCount()) * 2;
     entries = ConcurrentHashMap.newKeySet(initialCapacity);
+    pendingSaves = ConcurrentHashMap.newKeySet();
+    pendingRemovals = ConcurrentHashMap.newKeySet();
+    pendingRemovalIds = ConcurrentHashMap.newKeySet();
+    recentlyUsed = new LinkedHashMap<>(initialCapacity, 0.75f, true);
+    pinned = new IdentityHashMap<>();
     indexedDatabaseComponent.setup(initialCapacity);
     sortedDatabaseComponent.setup(initialCapacity);
-    loadData();
+    journalDatabaseComponent.setup(initialCapacity);
+    loading = true;
+    if (!lazy)
+      loadData();
+    replayJournal();
+    loading = false;
     sortedDatabaseComponent.update();
-    autoSaveTask = scheduler.scheduleAtFixedRate(this::save, info.getAutoSaveInterval(), info.getAutoSaveInterval(), info.getAutoSaveTimeUnit());
+    autoSaveTask = scheduler.scheduleAtFixedRate(this::autoSave, info.getAutoSaveInterval(), info.getAutoSaveInterval(), info.getAutoSaveTimeUnit());
   }
 
   public final void add(ENTRY entry) {
+    register(entry);
+    cancelRemoval(entry);
+    pendingSaves.add(entry);
+    journalDatabaseComponent.add(entry);
+    if (lazy)
+      markUsed(entry);
+  }
+
+  protected final void register(ENTRY entry) {
     entries.add(entry);
     indexedDatabaseComponent.add(entry);
-    sortedDatabaseComponent.add(entry);
+    if (!loading)
+      sortedDatabaseComponent.add(entry);
+  }
+
+  public final boolean remove(@NotNull ENTRY entry) {
+    if (!unregister(entry))
+      return false;
+    pendingSaves.remove(entry);
+    queueRemoval(entry);
+    journalDatabaseComponent.remove(entry);
+    return true;
+  }
+
+  private void queueRemoval(ENTRY entry) {
+    pendingRemovals.add(entry);
+    if (lazy)
+      pendingRemovalIds.add(getEntryId(entry));
+  }
+
+  private void cancelRemoval(ENTRY entry) {
+    pendingRemovals.remove(entry);
+    if (lazy)
+      pendingRemovalIds.remove(getEntryId(entry));
+  }
+
+  private boolean unregister(ENTRY entry) {
+    if (!entries.remove(entry))
+      return false;
+    indexedDatabaseComponent.remove(entry);
+    if (!loading)
+      sortedDatabaseComponent.remove(entry);
+    if (lazy)
+      synchronized (recentlyUsed) {
+        recentlyUsed.remove(entry);
+      }
+    return true;
+  }
+
+  public final Optional<ENTRY> removeByIndex(@NotNull String index, @NotNull Object indexKey) {
+    return getByIndex(index, indexKey).filter(this::remove);
+  }
+
+  public final void queueSave(@NotNull ENTRY entry) {
+    if (!entries.contains(entry))
+      return;
+    refresh(entry);
+    pendingSaves.add(entry);
+    journalDatabaseComponent.add(entry);
+  }
+
+  private void queueChanged(ENTRY entry) {
+    if (!useDirtyable || ((Dirtyable) entry).isDirty())
+      queueSave(entry);
+    else if (entries.contains(entry))
+      refresh(entry);
+  }
+
+  private void refresh(ENTRY entry) {
+    indexedDatabaseComponent.refresh(entry);
+    sortedDatabaseComponent.refresh(entry);
+  }
+
+  protected final Collection<ENTRY> drainPendingSaves() {
+    Collection<ENTRY> drained = drain(pendingSaves);
+    if (useDirtyable)
+      drained.forEach(entry -> ((Dirtyable) entry).markClean());
+    return drained;
+  }
+
+  protected final Collection<ENTRY> drainPendingRemovals() {
+    Collection<ENTRY> drained = drain(pendingRemovals);
+    if (lazy)
+      drained.forEach(entry -> pendingRemovalIds.remove(getEntryId(entry)));
+    return drained;
+  }
+
+  private static <T> Collection<T> drain(Set<T> pending) {
+    List<T> drained = new ArrayList<>(pending.size());
+    for (Iterator<T> iterator = pending.iterator(); iterator.hasNext(); ) {
+      drained.add(iterator.next());
+      iterator.remove();
+    }
+    return drained;
+  }
+
+  protected final void requeueSaves(@NotNull Collection<ENTRY> failed) {
+    pendingSaves.addAll(failed);
+  }
+
+  protected final void requeueRemovals(@NotNull Collection<ENTRY> failed) {
+    failed.forEach(this::queueRemoval);
+  }
+
+  protected final ByteTranslatable getEntryId(@NotNull ENTRY entry) {
+    return indexedDatabaseComponent.getPrimaryKey(entry);
+  }
+
+  protected final int getPartition(@NotNull ENTRY entry, int partitions) {
+    Object key = indexedDatabaseComponent.hasPrimaryIndex() ? getEntryId(entry) : entry;
+    return Math.floorMod(key.hashCode(), partitions);
   }
 
   public final <R> Optional<R> queryByIndex(@NotNull String index, @NotNull Object key, @NotNull Function<ENTRY, R> function) {
+    if (lazy)
+      return getByIndex(index, key).map(function);
     return indexedDatabaseComponent.queryByIndex(index, key, function);
   }
 
@@ -67,11 +224,52 @@ public abstract class AbstractDatabase<ENTRY, INTERNAL_STORAGE> implements Close
   }
 
   public final Optional<ENTRY> updateByIndex(@NotNull String index, @NotNull Object indexKey, @NotNull Consumer<ENTRY> update) {
-    return indexedDatabaseComponent.updateByIndex(index, indexKey, update);
+    if (lazy)
+      return updatePinned(() -> getByIndex(index, indexKey), update);
+    Optional<ENTRY> updated = indexedDatabaseComponent.updateByIndex(index, indexKey, update);
+    updated.ifPresent(this::queueChanged);
+    return updated;
   }
 
   public final Optional<ENTRY> updateSorted(@NotNull String sorted, int index, @NotNull Consumer<ENTRY> update) {
-    return sortedDatabaseComponent.updateSorted(sorted, index, update);
+    if (lazy)
+      return updatePinned(() -> getSorted(sorted, index), update);
+    Optional<ENTRY> updated = sortedDatabaseComponent.updateSorted(sorted, index, update);
+    updated.ifPresent(this::queueChanged);
+    return updated;
+  }
+
+  // Keeps the entry pinned from before the update until its change is queued, as an eviction that unregistered it in
+  // between would make queueSave drop the change. An entry evicted before it could be pinned is looked up again.
+  private Optional<ENTRY> updatePinned(Supplier<Optional<ENTRY>> lookup, Consumer<ENTRY> update) {
+    Optional<ENTRY> found;
+    do
+      found = lookup.get();
+    while (found.isPresent() && !pin(found.get()));
+    found.ifPresent(entry -> {
+      try {
+        update.accept(entry);
+        queueChanged(entry);
+      } finally {
+        unpin(entry);
+      }
+    });
+    return found;
+  }
+
+  private boolean pin(ENTRY entry) {
+    synchronized (recentlyUsed) {
+      if (!entries.contains(entry))
+        return false;
+      pinned.merge(entry, 1, Integer::sum);
+      return true;
+    }
+  }
+
+  private void unpin(ENTRY entry) {
+    synchronized (recentlyUsed) {
+      pinned.computeIfPresent(entry, (pinnedEntry, count) -> count == 1 ? null : count - 1);
+    }
   }
 
   public final Set<ENTRY> getEntries() {
@@ -79,36 +277,246 @@ public abstract class AbstractDatabase<ENTRY, INTERNAL_STORAGE> implements Close
   }
 
   public final Optional<ENTRY> getByIndex(@NotNull String index, @NotNull Object rawIndexKey) {
-    return indexedDatabaseComponent.getByIndex(index, rawIndexKey);
+    Optional<ENTRY> entry = indexedDatabaseComponent.getByIndex(index, rawIndexKey);
+    if (!lazy)
+      return entry;
+    if (entry.isPresent()) {
+      markUsed(entry.get());
+      return entry;
+    }
+    if (!indexedDatabaseComponent.isPrimaryIndex(index))
+      return entry;
+    return loadThrough(ByteTranslatable.from(rawIndexKey));
+  }
+
+  public final Optional<ENTRY> getByIndex(@NotNull String index, @NotNull Object first, @NotNull Object second, @NotNull Object... rest) {
+    return getByIndex(index, compositeKey(first, second, rest));
+  }
+
+  public final List<ENTRY> getAllByIndex(@NotNull String index, @NotNull Object first, @NotNull Object second, @NotNull Object... rest) {
+    return getAllByIndex(index, compositeKey(first, second, rest));
+  }
+
+  public final int countByIndex(@NotNull String index, @NotNull Object first, @NotNull Object second, @NotNull Object... rest) {
+    return countByIndex(index, compositeKey(first, second, rest));
+  }
+
+  public final List<ENTRY> findByPrefix(@NotNull String index, @NotNull String prefix, int limit) {
+    List<ENTRY> found = indexedDatabaseComponent.findByPrefix(index, prefix, limit);
+    if (lazy)
+      found.forEach(this::markUsed);
+    return found;
+  }
+
+  public final Optional<ENTRY> getByIndexIgnoreCase(@NotNull String index, @NotNull String indexKey) {
+    Optional<ENTRY> found = indexedDatabaseComponent.getByIndexIgnoreCase(index, indexKey);
+    if (lazy)
+      found.ifPresent(this::markUsed);
+    return found;
+  }
+
+  public final List<ENTRY> withinRadius(@NotNull String index, @NotNull Location center, double radius) {
+    List<ENTRY> found = indexedDatabaseComponent.withinRadius(index, center, radius);
+    if (lazy)
+      found.forEach(this::markUsed);
+    return found;
+  }
+
+  public final List<ENTRY> inChunk(@NotNull String index, @NotNull World world, int chunkX, int chunkZ) {
+    List<ENTRY> found = indexedDatabaseComponent.inChunk(index, world, chunkX, chunkZ);
+    if (lazy)
+      found.forEach(this::markUsed);
+    return found;
+  }
+
+  private static Object[] compositeKey(Object first, Object second, Object[] rest) {
+    Object[] key = new Object[rest.length + 2];
+    key[0] = first;
+    key[1] = second;
+    System.arraycopy(rest, 0, key, 2, rest.length);
+    return key;
+  }
+
+  public final List<ENTRY> getAllByIndex(@NotNull String index, @NotNull Object indexKey) {
+    List<ENTRY> found = indexedDatabaseComponent.getAllByIndex(index, indexKey);
+    if (lazy)
+      found.forEach(this::markUsed);
+    return found;
+  }
+
+  public final int countByIndex(@NotNull String index, @NotNull Object indexKey) {
+    return indexedDatabaseComponent.countByIndex(index, indexKey);
+  }
+
+  private Optional<ENTRY> getById(ByteTranslatable id) {
+    Optional<ENTRY> entry = indexedDatabaseComponent.getByPrimaryKey(id);
+    if (entry.isPresent() || !lazy)
+      return entry;
+    return loadThrough(id);
+  }
+
+  private Optional<ENTRY> loadThrough(ByteTranslatable id) {
+    if (pendingRemovalIds.contains(id))
+      return Optional.empty();
+    Optional<ENTRY> loaded = loadEntry(id);
+    if (loaded.isEmpty())
+      return loaded;
+    synchronized (recentlyUsed) {
+      Optional<ENTRY> cached = indexedDatabaseComponent.getByPrimaryKey(id);
+      if (cached.isPresent())
+        loaded = cached;
+      else
+        register(loaded.get());
+    }
+    markUsed(loaded.get());
+    return loaded;
+  }
+
+  private void markUsed(ENTRY entry) {
+    int cached;
+    synchronized (recentlyUsed) {
+      if (!entries.contains(entry))
+        return;
+      recentlyUsed.put(entry, ++useCount);
+      cached = recentlyUsed.size();
+    }
+    if (cached > info.getMaxCachedEntries() && evictionQueued.compareAndSet(false, true))
+      scheduler.execute(this::evictColdEntries);
+  }
+
+  protected final synchronized void evictColdEntries() {
+    evictionQueued.set(false);
+    List<Pair<ENTRY, Long>> cold;
+    synchronized (recentlyUsed) {
+      int excess = recentlyUsed.size() - info.getMaxCachedEntries();
+      if (excess <= 0)
+        return;
+      cold = recentlyUsed.entrySet().stream().limit(excess).map(Pair::of).toList();
+    }
+
+    if (useDirtyable)
+      cold.stream().map(Pair::left).filter(entry -> ((Dirtyable) entry).isDirty()).forEach(this::queueSave);
+    if (cold.stream().map(Pair::left).anyMatch(pendingSaves::contains))
+      try {
+        persist();
+      } catch (RuntimeException exception) {
+        Logger.getGlobal().log(Level.SEVERE, "Failed to flush entries before eviction", exception);
+      }
+
+    // An entry used or pinned since the snapshot is no longer cold, and may have a change on its way to queueSave.
+    for (Pair<ENTRY, Long> entry : cold)
+      synchronized (recentlyUsed) {
+        if (!pendingSaves.contains(entry.left()) && !pinned.containsKey(entry.left()) && entry.right().equals(recentlyUsed.get(entry.left())))
+          unregister(entry.left());
+      }
   }
 
   public final Optional<ENTRY> getSorted(@NotNull String sorted, int index) {
     return sortedDatabaseComponent.getSorted(sorted, index);
   }
 
+  public final OptionalInt rankOf(@NotNull String sorted, @NotNull ENTRY entry) {
+    return sortedDatabaseComponent.rankOf(sorted, entry);
+  }
+
+  public final List<ENTRY> getSortedRange(@NotNull String sorted, int from, int to) {
+    return sortedDatabaseComponent.getSortedRange(sorted, from, to);
+  }
+
+  public final List<ENTRY> rangeByValue(@NotNull String sorted, Object min, Object max) {
+    return sortedDatabaseComponent.rangeByValue(sorted, min, max);
+  }
+
+  public final int countAbove(@NotNull String sorted, Object value) {
+    return sortedDatabaseComponent.countAbove(sorted, value);
+  }
+
   protected abstract INTERNAL_STORAGE getData();
 
   protected abstract void loadData();
 
+  private void replayJournal() {
+    journalDatabaseComponent.replay(rawEntry -> {
+      ENTRY entry = decodeJournalEntry(rawEntry);
+      indexedDatabaseComponent.getByPrimaryKey(getEntryId(entry))
+        .filter(this::unregister)
+        .ifPresent(previous -> replaced(previous, entry));
+      register(entry);
+      cancelRemoval(entry);
+      pendingSaves.add(entry);
+      if (lazy)
+        markUsed(entry);
+    }, id -> getById(id).filter(this::unregister).ifPresent(entry -> {
+      pendingSaves.remove(entry);
+      queueRemoval(entry);
+    }));
+  }
+
+  protected Pair<ByteTranslatable, ByteTranslatable> encodeJournalEntry(@NotNull ENTRY entry) {
+    throw new UnsupportedOperationException("Journaling is not supported by " + getClass().getSimpleName());
+  }
+
+  protected ENTRY decodeJournalEntry(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    throw new UnsupportedOperationException("Journaling is not supported by " + getClass().getSimpleName());
+  }
+
+  // Called when a replayed journal record stands in for an entry that was already loaded.
+  protected void replaced(@NotNull ENTRY previous, @NotNull ENTRY entry) {
+  }
+
+  // Whether loadEntry can fetch a single stored entry by id, which lazy loading needs on every cache miss.
+  protected boolean supportsEntryLookup() {
+    return false;
+  }
+
+  protected Optional<ENTRY> loadEntry(@NotNull ByteTranslatable id) {
+    throw new UnsupportedOperationException("Lazy loading is not supported by " + getClass().getSimpleName());
+  }
+
   protected abstract void saveData(INTERNAL_STORAGE data);
 
   protected abstract void save();
 
+  private void persist() {
+    long checkpoint = journalDatabaseComponent.rotate();
+    save();
+    journalDatabaseComponent.truncate(checkpoint);
+  }
+
+  // A scheduled task that throws is cancelled for good, so a failed autosave is logged and left to the next tick.
+  // The failed entries are already requeued by save.
+  private void autoSave() {
+    try {
+      persist();
+    } catch (RuntimeException exception) {
+      Logger.getGlobal().log(Level.SEVERE, "Failed to autosave, retrying on the next interval", exception);
+    }
+  }
+
   @Override
   public void close() {
     sortedDatabaseComponent.close();
     autoSaveTask.cancel(false);
-    save();
-    entries.clear();
-    indexedDatabaseComponent.close();
-    scheduler.shutdown();
     try {
-      if (!scheduler.awaitTermination(5, TimeUnit.SECONDS))
+      persist();
+    } finally {
+      entries.clear();
+      pendingSaves.clear();
+      pendingRemovals.clear();
+      pendingRemovalIds.clear();
+      recentlyUsed.clear();
+      pinned.clear();
+      indexedDatabaseComponent.close();
+      journalDatabaseComponent.close();
+      scheduler.shutdown();
+      try {
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS))
+          scheduler.shutdownNow();
+      } catch (InterruptedException exception) {
+        // TODO Figure log shit out
+        Logger.getGlobal().log(Level.SEVERE, "Failed to shutdown scheduler", exception);
         scheduler.shutdownNow();
-    } catch (InterruptedException exception) {
-      // TODO Figure log shit out
-      Logger.getGlobal().log(Level.SEVERE, "Failed to shutdown scheduler", exception);
-      scheduler.shutdownNow();
+      }
     }
   }
 
@@ -3,8 +3,11 @@ package me.jeremiah.data.storage.databases.byteoriented;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.Handoff;
 import me.jeremiah.data.storage.SQLStatementHandler;
+import me.jeremiah.data.storage.SaveReport;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
@@ -13,8 +16,19 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.Optional;
 
 public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
 
@@ -22,6 +36,15 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
 
   private final HikariDataSource dataSource;
 
+  private final int fetchSize;
+  private final int pipelineCapacity;
+  private final int pipelineWorkers;
+  private final int bulkWriteSize;
+  private final int saveConnections;
+  private final int loadConnections;
+
+  private volatile SaveReport lastSaveReport;
+
   protected AbstractSQLDatabase(@NotNull Class<? extends Driver> driver, SQLStatementHandler statementHandler, @NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
     if (DriverManager.drivers().noneMatch(driver::isInstance))
@@ -35,9 +58,19 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     HikariConfig hikariConfig = new HikariConfig();
 
     processConfig(hikariConfig, info);
+    int connections = Math.max(info.getSaveConnections(), info.getLoadConnections());
+    if (hikariConfig.getMaximumPoolSize() < connections)
+      hikariConfig.setMaximumPoolSize(connections);
 
     dataSource = new HikariDataSource(hikariConfig);
 
+    fetchSize = info.getFetchSize();
+    pipelineCapacity = info.getPipelineCapacity();
+    pipelineWorkers = info.getPipelineWorkers();
+    bulkWriteSize = info.getBulkWriteSize();
+    saveConnections = info.getSaveConnections();
+    loadConnections = info.getLoadConnections();
+
     setup();
   }
 
@@ -62,6 +95,79 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     super.setup();
   }
 
+  @Override
+  protected void loadData() {
+    try (Handoff<Pair<ByteTranslatable, ByteTranslatable>> rows = Handoff.toWorkers(pipelineCapacity, pipelineWorkers, this::registerSerialized)) {
+      if (loadConnections <= 1)
+        readRange(rows, null, null);
+      else
+        readRanges(rows);
+      rows.finish();
+    }
+  }
+
+  // Ranges are cut at ids sampled from the entry_id index at even offsets, so each holds about the same number of rows
+  // however the ids are distributed. Sequential numbers and player names bunch up under any fixed byte split.
+  private void readRanges(Handoff<Pair<ByteTranslatable, ByteTranslatable>> rows) {
+    List<byte[]> splits = sampleSplits();
+    try (ExecutorService executor = Executors.newFixedThreadPool(splits.size() + 1)) {
+      List<Future<?>> reads = new ArrayList<>(splits.size() + 1);
+      for (int i = 0; i <= splits.size(); i++) {
+        byte[] from = i == 0 ? new byte[0] : splits.get(i - 1);
+        byte[] to = i == splits.size() ? null : splits.get(i);
+        reads.add(executor.submit(() -> readRange(rows, from, to)));
+      }
+
+      for (Future<?> read : reads)
+        read.get();
+    } catch (InterruptedException exception) {
+      rows.close();
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading data from SQL database.", exception);
+    } catch (ExecutionException exception) {
+      rows.close();
+      if (exception.getCause() instanceof RuntimeException cause)
+        throw cause;
+      throw new RuntimeException("Failed to load data from SQL database.", exception.getCause());
+    }
+  }
+
+  private List<byte[]> sampleSplits() {
+    try (Connection connection = dataSource.getConnection()) {
+      long count = statementHandler.handleEntryCountLookup(connection);
+      List<byte[]> splits = new ArrayList<>(loadConnections - 1);
+      for (int i = 1; i < loadConnections; i++) {
+        byte[] split = statementHandler.handleEntryIdAtOffset(connection, (int) (count * i / loadConnections));
+        // Few rows give repeated offsets, and an empty range is not worth a connection.
+        if (split != null && (splits.isEmpty() || !Arrays.equals(split, splits.getLast())))
+          splits.add(split);
+      }
+      return splits;
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to sample entry ranges from SQL database.", exception);
+    }
+  }
+
+  private void readRange(Handoff<Pair<ByteTranslatable, ByteTranslatable>> rows, byte[] from, byte[] to) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement loadStatement = from == null
+        ? statementHandler.getStreamingLoadEntryStatement(connection, fetchSize)
+        : statementHandler.getStreamingLoadEntryRangeStatement(connection, fetchSize, from, to);
+           ResultSet rawEntries = loadStatement.executeQuery()) {
+
+        while (rawEntries.next())
+          rows.put(Pair.of(
+            ByteTranslatable.fromByteArray(rawEntries.getBytes("entry_id")),
+            ByteTranslatable.fromByteArray(rawEntries.getBytes("entry_data"))
+          ));
+      }
+      connection.commit();
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to load data from SQL database.", exception);
+    }
+  }
+
   @Override
   protected Map<ByteTranslatable, ByteTranslatable> getData() {
     try (Connection connection = dataSource.getConnection();
@@ -80,21 +186,95 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     }
   }
 
+  @Override
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    try (Connection connection = dataSource.getConnection();
+         PreparedStatement loadStatement = statementHandler.getLoadSingleEntryStatement(connection)) {
+      loadStatement.setBytes(1, id.bytes());
+      try (ResultSet rawEntry = loadStatement.executeQuery()) {
+        if (!rawEntry.next())
+          return Optional.empty();
+        return Optional.of(ByteTranslatable.fromByteArray(rawEntry.getBytes("entry_data")));
+      }
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to load entry from SQL database.", exception);
+    }
+  }
+
+  // Only reached when a subclass saves rows itself, as saveEntries streams changed entries straight to writeRows.
   @Override
   protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    Iterator<Map.Entry<ByteTranslatable, ByteTranslatable>> rows = data.entrySet().iterator();
+    writeRows(() -> rows.hasNext() ? Pair.of(rows.next()) : null);
+  }
+
+  @Override
+  protected void saveEntries(@NotNull Collection<ENTRY> changed) {
+    if (saveConnections <= 1) {
+      lastSaveReport = new SaveReport(List.of(writePartition(0, new ArrayList<>(changed), pipelineWorkers)));
+      return;
+    }
+
+    List<List<ENTRY>> partitions = new ArrayList<>(saveConnections);
+    for (int i = 0; i < saveConnections; i++)
+      partitions.add(new ArrayList<>(changed.size() / saveConnections + 1));
+    for (ENTRY entry : changed)
+      partitions.get(getPartition(entry, saveConnections)).add(entry);
+
+    // Partitions share the serializer threads rather than each getting a full set.
+    int workers = Math.max(1, pipelineWorkers / saveConnections);
+    try (ExecutorService executor = Executors.newFixedThreadPool(saveConnections)) {
+      List<Future<SaveReport.Partition>> writes = new ArrayList<>(saveConnections);
+      for (int i = 0; i < saveConnections; i++) {
+        int index = i;
+        writes.add(executor.submit(() -> writePartition(index, partitions.get(index), workers)));
+      }
+
+      List<SaveReport.Partition> timings = new ArrayList<>(saveConnections);
+      for (Future<SaveReport.Partition> write : writes)
+        timings.add(write.get());
+      lastSaveReport = new SaveReport(timings);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while saving data to SQL database.", exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause)
+        throw cause;
+      throw new RuntimeException("Failed to save data to SQL database.", exception.getCause());
+    }
+  }
+
+  // Entries are serialized on the handoff's own workers, never the common pool, since they block whenever JDBC lags.
+  private SaveReport.Partition writePartition(int index, List<ENTRY> partition, int workers) {
+    long start = System.nanoTime();
+    try (Handoff<Pair<ByteTranslatable, ByteTranslatable>> rows = Handoff.fromWorkers(pipelineCapacity, workers, partition, this::serialize)) {
+      writeRows(rows::take);
+    }
+    return new SaveReport.Partition(index, partition.size(), System.nanoTime() - start);
+  }
+
+  // Writes rows until the source runs dry, committing every bulkWriteSize rows.
+  private void writeRows(Supplier<Pair<ByteTranslatable, ByteTranslatable>> rows) {
     try (Connection connection = dataSource.getConnection()) {
       connection.setAutoCommit(false);
       try (PreparedStatement saveStatement = statementHandler.getSaveEntryStatement(connection)) {
 
-        for (Map.Entry<ByteTranslatable, ByteTranslatable> entry : data.entrySet()) {
-          saveStatement.setBytes(1, entry.getKey().bytes());
-          saveStatement.setBytes(2, entry.getValue().bytes());
+        int batched = 0;
+        for (Pair<ByteTranslatable, ByteTranslatable> row; (row = rows.get()) != null; ) {
+          saveStatement.setBytes(1, row.left().bytes());
+          saveStatement.setBytes(2, row.right().bytes());
           saveStatement.addBatch();
+          if (++batched == bulkWriteSize) {
+            saveStatement.executeBatch();
+            connection.commit();
+            batched = 0;
+          }
         }
 
-        saveStatement.executeBatch();
+        if (batched > 0)
+          saveStatement.executeBatch();
         connection.commit();
-      } catch (SQLException exception) {
+      } catch (SQLException | RuntimeException exception) {
         connection.rollback();
         throw exception;
       }
@@ -103,6 +283,32 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     }
   }
 
+  public SaveReport getLastSaveReport() {
+    return lastSaveReport;
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> ids) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement deleteStatement = statementHandler.getDeleteEntryStatement(connection)) {
+
+        for (ByteTranslatable id : ids) {
+          deleteStatement.setBytes(1, id.bytes());
+          deleteStatement.addBatch();
+        }
+
+        deleteStatement.executeBatch();
+        connection.commit();
+      } catch (SQLException exception) {
+        connection.rollback();
+        throw exception;
+      }
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to delete data from SQL database.", exception);
+    }
+  }
+
   @Override
   public void close() {
     super.close();
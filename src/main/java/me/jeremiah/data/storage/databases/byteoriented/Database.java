@@ -3,49 +3,92 @@ package me.jeremiah.data.storage.databases.byteoriented;
 import me.jeremiah.data.ByteTranslatable;
 import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
-import me.jeremiah.data.storage.Dirtyable;
 import me.jeremiah.data.storage.ReflectionUtils;
 import me.jeremiah.data.storage.databases.AbstractDatabase;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.Optional;
+import java.util.function.Function;
 
 public abstract class Database<ENTRY> extends AbstractDatabase<ENTRY, Map<ByteTranslatable, ByteTranslatable>> {
 
-  private final Method serializeMethod;
-  private final Method deserializeMethod;
+  private final Function<Object, Pair<ByteTranslatable, ByteTranslatable>> serializer;
+  private final Function<Object, ENTRY> deserializer;
 
   protected Database(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
-    this.serializeMethod = ReflectionUtils.getSerializeMethod(entryClass);
-    this.deserializeMethod = ReflectionUtils.getDeserializeMethod(entryClass);
+    this.serializer = ReflectionUtils.getSerializer(entryClass);
+    this.deserializer = ReflectionUtils.getDeserializer(entryClass);
   }
 
   @Override
   protected void loadData() {
     getData().entrySet().parallelStream()
       .map(Pair::of)
-      .forEach(entry -> add(ReflectionUtils.deserialize(deserializeMethod, entry)));
+      .forEach(this::registerSerialized);
+  }
+
+  protected final void registerSerialized(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    register(deserializer.apply(rawEntry));
+  }
+
+  @Override
+  protected boolean supportsEntryLookup() {
+    return true;
+  }
+
+  @Override
+  protected Optional<ENTRY> loadEntry(@NotNull ByteTranslatable id) {
+    return getData(id).map(data -> deserializer.apply(Pair.of(id, data)));
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   protected void save() {
-    Stream<ENTRY> stream = entries.parallelStream();
+    Collection<ENTRY> removed = drainPendingRemovals();
+    Collection<ENTRY> changed = drainPendingSaves();
+    if (removed.isEmpty() && changed.isEmpty())
+      return;
+
+    try {
+      if (!removed.isEmpty())
+        deleteData(removed.parallelStream().map(this::getEntryId).toList());
+
+      if (!changed.isEmpty())
+        saveEntries(changed);
+    } catch (RuntimeException exception) {
+      requeueRemovals(removed);
+      requeueSaves(changed);
+      throw exception;
+    }
+  }
+
+  @Override
+  protected Pair<ByteTranslatable, ByteTranslatable> encodeJournalEntry(@NotNull ENTRY entry) {
+    return serialize(entry);
+  }
+
+  @Override
+  protected ENTRY decodeJournalEntry(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    return deserializer.apply(rawEntry);
+  }
 
-    if (useDirtyable)
-      stream = stream
-        .filter(entry -> ((Dirtyable) entry).isDirty())
-        .peek(entry -> ((Dirtyable) entry).markClean());
+  protected abstract Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id);
 
-    Map<ByteTranslatable, ByteTranslatable> data = stream
-      .map(entry -> (Pair<ByteTranslatable, ByteTranslatable>) ReflectionUtils.serialize(serializeMethod, entry))
+  protected void saveEntries(@NotNull Collection<ENTRY> changed) {
+    Map<ByteTranslatable, ByteTranslatable> data = changed.parallelStream()
+      .map(this::serialize)
       .collect(HashMap::new, (map, entry) -> entry.putInto(map), HashMap::putAll);
 
     saveData(data);
   }
 
+  protected abstract void deleteData(Collection<ByteTranslatable> ids);
+
+  protected final Pair<ByteTranslatable, ByteTranslatable> serialize(ENTRY entry) {
+    return serializer.apply(entry);
+  }
+
 }
@@ -0,0 +1,362 @@
+package me.jeremiah.data.storage.databases.byteoriented;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
+import me.jeremiah.data.storage.DatabaseInfo;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public final class LogStructured<ENTRY> extends Database<ENTRY> {
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  // Records are laid out as [id length][data length][crc32][id][data], a data length of -1 marks a removal.
+  private static final int HEADER_SIZE = Integer.BYTES * 3;
+  private static final int TOMBSTONE = -1;
+  private static final double COMPACTION_THRESHOLD = 0.5;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final ScheduledFuture<?> compactionTask;
+
+  private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+  private final Map<ByteTranslatable, Location> locations = new ConcurrentHashMap<>();
+  // The newest record of each removed id, while an older put it hides is still on disk.
+  private final Map<ByteTranslatable, Location> tombstones = new ConcurrentHashMap<>();
+  // How many superseded puts of each id are still on disk. A removal only needs its tombstone while this is above zero.
+  private final Map<ByteTranslatable, Integer> deadPuts = new HashMap<>();
+  // Compacted segments whose files are deleted on a later pass, once readers holding their locations are done.
+  private final List<Retired> retired = new ArrayList<>();
+  private volatile Segment active;
+
+  public LogStructured(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
+    super(info, entryClass);
+    this.directory = Path.of("./%s.log".formatted(info.getName()));
+    this.segmentSize = info.getLogSegmentSize();
+
+    try {
+      Files.createDirectories(directory);
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : files.toList()) {
+          long number = segmentNumber(file);
+          if (number >= 0)
+            segments.put(number, Segment.open(number, file, Files.size(file), FileChannel.MapMode.READ_ONLY));
+        }
+      }
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to open log segments in " + directory, exception);
+    }
+
+    List<Map<ByteTranslatable, Trail>> scanned = segments.values().parallelStream()
+      .map(this::scan)
+      .toList();
+    for (Map<ByteTranslatable, Trail> segmentTrails : scanned)
+      segmentTrails.forEach((id, trail) -> {
+        Location location = trail.last();
+        if (trail.shadowedPuts() > 0)
+          deadPuts.merge(id, trail.shadowedPuts(), Integer::sum);
+        Location previous = location.isTombstone() ? locations.remove(id) : locations.put(id, location);
+        if (previous != null)
+          shadowPut(id, previous);
+        shadowTombstone(id);
+        if (location.isTombstone())
+          tombstones.put(id, location);
+      });
+    // A removal with no older put left to hide needs no tombstone.
+    tombstones.keySet().stream()
+      .filter(id -> !deadPuts.containsKey(id))
+      .toList()
+      .forEach(this::shadowTombstone);
+
+    active = createSegment(segments.isEmpty() ? 0 : segments.lastKey() + 1, segmentSize);
+
+    compactionTask = getScheduler().scheduleWithFixedDelay(this::compact, 1, 1, TimeUnit.MINUTES);
+
+    setup();
+  }
+
+  @Override
+  protected int lookupEntryCount() {
+    return locations.size();
+  }
+
+  @Override
+  protected void loadData() {
+    locations.entrySet().parallelStream()
+      .forEach(entry -> registerSerialized(Pair.of(entry.getKey(), read(entry.getValue()))));
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
+    Map<ByteTranslatable, ByteTranslatable> data = new HashMap<>(locations.size());
+    locations.forEach((id, location) -> data.put(id, read(location)));
+    return data;
+  }
+
+  @Override
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    return Optional.ofNullable(locations.get(id)).map(this::read);
+  }
+
+  @Override
+  protected synchronized void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    for (Map.Entry<ByteTranslatable, ByteTranslatable> entry : data.entrySet()) {
+      Location location = append(entry.getKey().bytes(), entry.getValue().bytes());
+      Location previous = locations.put(entry.getKey(), location);
+      if (previous != null)
+        shadowPut(entry.getKey(), previous);
+      shadowTombstone(entry.getKey());
+    }
+    active.buffer.force();
+  }
+
+  @Override
+  protected synchronized void deleteData(Collection<ByteTranslatable> ids) {
+    for (ByteTranslatable id : ids) {
+      Location previous = locations.remove(id);
+      if (previous == null)
+        continue;
+      shadowPut(id, previous);
+      tombstones.put(id, append(id.bytes(), null));
+    }
+    active.buffer.force();
+  }
+
+  // Counts a put that a newer record of its id took over from as dead, while it stays on disk.
+  private void shadowPut(ByteTranslatable id, Location put) {
+    put.segment().dead.addAndGet(put.size());
+    deadPuts.merge(id, 1, Integer::sum);
+  }
+
+  // Counts the id's tombstone as dead, once a newer record took over from it or nothing older is left for it to hide.
+  private void shadowTombstone(ByteTranslatable id) {
+    Location tombstone = tombstones.remove(id);
+    if (tombstone != null)
+      tombstone.segment().dead.addAndGet(tombstone.size());
+  }
+
+  private void releasePuts(ByteTranslatable id, int puts) {
+    if (deadPuts.computeIfPresent(id, (key, left) -> left > puts ? left - puts : null) == null)
+      shadowTombstone(id);
+  }
+
+  private ByteTranslatable read(Location location) {
+    byte[] data = new byte[location.length()];
+    location.segment().buffer.get(location.offset() + HEADER_SIZE + location.idLength(), data);
+    return ByteTranslatable.fromByteArray(data);
+  }
+
+  private Location append(byte[] id, byte[] data) {
+    int dataLength = data == null ? TOMBSTONE : data.length;
+    int size = HEADER_SIZE + id.length + Math.max(dataLength, 0);
+    if (active.buffer.capacity() - active.position < size) {
+      active.buffer.force();
+      active = createSegment(active.number + 1, Math.max(segmentSize, size));
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(id);
+    if (data != null)
+      crc.update(data);
+
+    // The id length is written last so a crash mid-append leaves the record unreadable instead of torn.
+    int offset = active.position;
+    MappedByteBuffer buffer = active.buffer;
+    buffer.put(offset + HEADER_SIZE, id);
+    if (data != null)
+      buffer.put(offset + HEADER_SIZE + id.length, data);
+    buffer.putInt(offset + Integer.BYTES * 2, (int) crc.getValue());
+    buffer.putInt(offset + Integer.BYTES, dataLength);
+    buffer.putInt(offset, id.length);
+    active.position = offset + size;
+    return new Location(active, offset, id.length, dataLength);
+  }
+
+  // The last record of each id in the segment, with how many of its puts came before it.
+  private Map<ByteTranslatable, Trail> scan(Segment segment) {
+    Map<ByteTranslatable, Trail> segmentTrails = new HashMap<>();
+    MappedByteBuffer buffer = segment.buffer;
+    int offset = 0;
+    while (buffer.capacity() - offset >= HEADER_SIZE) {
+      int idLength = buffer.getInt(offset);
+      int dataLength = buffer.getInt(offset + Integer.BYTES);
+      int checksum = buffer.getInt(offset + Integer.BYTES * 2);
+      if (idLength <= 0 || dataLength < TOMBSTONE || buffer.capacity() - offset - HEADER_SIZE < (long) idLength + Math.max(dataLength, 0))
+        break;
+
+      byte[] id = new byte[idLength];
+      buffer.get(offset + HEADER_SIZE, id);
+      CRC32 crc = new CRC32();
+      crc.update(id);
+      if (dataLength > 0)
+        crc.update(buffer.slice(offset + HEADER_SIZE + idLength, dataLength));
+      if ((int) crc.getValue() != checksum)
+        break;
+
+      ByteTranslatable key = ByteTranslatable.fromByteArray(id);
+      Trail previous = segmentTrails.get(key);
+      int shadowedPuts = 0;
+      if (previous != null) {
+        segment.dead.addAndGet(previous.last().size());
+        shadowedPuts = previous.shadowedPuts() + (previous.last().isTombstone() ? 0 : 1);
+      }
+      segmentTrails.put(key, new Trail(new Location(segment, offset, idLength, dataLength), shadowedPuts));
+      offset += HEADER_SIZE + idLength + Math.max(dataLength, 0);
+    }
+    segment.position = offset;
+    return segmentTrails;
+  }
+
+  // Runs once a minute on the database's scheduler, and can be called to compact straight away.
+  public void compact() {
+    try {
+      deleteRetired();
+      for (Segment segment : segments.values()) {
+        if (segment == active || segment.dead.get() < segment.position * COMPACTION_THRESHOLD)
+          continue;
+        compact(segment);
+      }
+    } catch (RuntimeException exception) {
+      Logger.getGlobal().log(Level.SEVERE, "Failed to compact log segments in " + directory, exception);
+    }
+  }
+
+  // Live records are copied to the active segment. A live tombstone is copied only while a put it hides survives
+  // outside this segment. The file stays until a later pass, so its puts count as on disk until then.
+  private synchronized void compact(Segment segment) {
+    Map<ByteTranslatable, Integer> released = new HashMap<>();
+    scan(segment).forEach((id, trail) -> {
+      Location location = trail.last();
+      int puts = trail.shadowedPuts();
+      if (location.isTombstone()) {
+        if (location.equals(tombstones.get(id))) {
+          if (deadPuts.getOrDefault(id, 0) > puts)
+            tombstones.put(id, append(id.bytes(), null));
+          else
+            tombstones.remove(id);
+        }
+      } else if (location.equals(locations.get(id)))
+        locations.put(id, append(id.bytes(), read(location).bytes()));
+      else
+        puts++;
+      if (puts > 0)
+        released.put(id, puts);
+    });
+    active.buffer.force();
+
+    segments.remove(segment.number);
+    retired.add(new Retired(segment, released));
+  }
+
+  // A file that cannot be deleted yet, such as one still mapped on Windows, is retried on the next pass. Its puts are
+  // only released once it is gone, so a restart in between still finds the tombstones that hide them.
+  private synchronized void deleteRetired() {
+    for (Iterator<Retired> iterator = retired.iterator(); iterator.hasNext(); ) {
+      Retired compacted = iterator.next();
+      try {
+        Files.deleteIfExists(compacted.segment().file);
+      } catch (IOException exception) {
+        Logger.getGlobal().log(Level.WARNING, "Failed to delete compacted log segment " + compacted.segment().file + ", retrying on the next pass", exception);
+        continue;
+      }
+      iterator.remove();
+      compacted.puts().forEach(this::releasePuts);
+    }
+  }
+
+  private Segment createSegment(long number, int size) {
+    Segment segment = Segment.open(number, directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX), size, FileChannel.MapMode.READ_WRITE);
+    segments.put(number, segment);
+    return segment;
+  }
+
+  private static long segmentNumber(Path file) {
+    String name = file.getFileName().toString();
+    if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+      return -1;
+    try {
+      return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException exception) {
+      return -1;
+    }
+  }
+
+  @Override
+  public void close() {
+    compactionTask.cancel(false);
+    super.close();
+    synchronized (this) {
+      active.buffer.force();
+    }
+    deleteRetired();
+  }
+
+  private record Location(Segment segment, int offset, int idLength, int length) {
+
+    boolean isTombstone() {
+      return length == TOMBSTONE;
+    }
+
+    int size() {
+      return HEADER_SIZE + idLength + Math.max(length, 0);
+    }
+
+  }
+
+  private record Trail(Location last, int shadowedPuts) {
+  }
+
+  private record Retired(Segment segment, Map<ByteTranslatable, Integer> puts) {
+  }
+
+  private static final class Segment {
+
+    private final long number;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final AtomicLong dead = new AtomicLong();
+    private volatile int position;
+
+    private Segment(long number, Path file, MappedByteBuffer buffer) {
+      this.number = number;
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    private static Segment open(long number, Path file, long size, FileChannel.MapMode mode) {
+      StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+        ? new StandardOpenOption[] {StandardOpenOption.READ}
+        : new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+      try (FileChannel channel = FileChannel.open(file, options)) {
+        return new Segment(number, file, channel.map(mode, 0, size));
+      } catch (IOException exception) {
+        throw new RuntimeException("Failed to open log segment " + file, exception);
+      }
+    }
+
+  }
+
+}
@@ -11,7 +11,12 @@ public final class MariaDB<ENTRY> extends AbstractSQLDatabase<ENTRY> {
     "CREATE TABLE IF NOT EXISTS entries(entry_id VARBINARY PRIMARY KEY, entry_data VARBINARY);",
     "SELECT COUNT(*) FROM entries;",
     "SELECT * FROM entries;",
-    "INSERT INTO entries(entry_id, entry_data) VALUES(?, ?) ON DUPLICATE KEY UPDATE entry_data = VALUES(entry_data);"
+    "INSERT INTO entries(entry_id, entry_data) VALUES(?, ?) ON DUPLICATE KEY UPDATE entry_data = VALUES(entry_data);",
+    "DELETE FROM entries WHERE entry_id = ?;",
+    "SELECT entry_data FROM entries WHERE entry_id = ?;",
+    "SELECT * FROM entries WHERE entry_id >= ? AND entry_id < ?;",
+    "SELECT * FROM entries WHERE entry_id >= ?;",
+    "SELECT entry_id FROM entries ORDER BY entry_id LIMIT 1 OFFSET ?;"
   );
 
   public MariaDB(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
@@ -3,8 +3,11 @@ package me.jeremiah.data.storage.databases.completebyteoriented;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.Handoff;
 import me.jeremiah.data.storage.SQLStatementHandler;
+import me.jeremiah.data.storage.SaveReport;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
@@ -13,8 +16,17 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
 
@@ -22,6 +34,14 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
 
   private final HikariDataSource dataSource;
 
+  private final int fetchSize;
+  private final int pipelineCapacity;
+  private final int pipelineWorkers;
+  private final int bulkWriteSize;
+  private final int saveConnections;
+
+  private volatile SaveReport lastSaveReport;
+
   protected AbstractSQLDatabase(@NotNull Class<? extends Driver> driver, SQLStatementHandler statementHandler, @NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
     if (DriverManager.drivers().noneMatch(driver::isInstance))
@@ -35,9 +55,17 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     HikariConfig hikariConfig = new HikariConfig();
 
     processConfig(hikariConfig, info);
+    if (hikariConfig.getMaximumPoolSize() < info.getSaveConnections())
+      hikariConfig.setMaximumPoolSize(info.getSaveConnections());
 
     dataSource = new HikariDataSource(hikariConfig);
 
+    fetchSize = info.getFetchSize();
+    pipelineCapacity = info.getPipelineCapacity();
+    pipelineWorkers = info.getPipelineWorkers();
+    bulkWriteSize = info.getBulkWriteSize();
+    saveConnections = info.getSaveConnections();
+
     setup();
   }
 
@@ -63,14 +91,33 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
   }
 
   @Override
-  protected Collection<ByteTranslatable> getData() {
+  protected void loadData() {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement loadStatement = statementHandler.getStreamingLoadEntryStatement(connection, fetchSize);
+           ResultSet rawEntries = loadStatement.executeQuery();
+           Handoff<ByteTranslatable> rows = Handoff.toWorkers(pipelineCapacity, pipelineWorkers, this::registerSerialized)) {
+
+        while (rawEntries.next())
+          rows.put(ByteTranslatable.fromByteArray(rawEntries.getBytes("entry")));
+
+        rows.finish();
+      }
+      connection.commit();
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to load data from SQL database.", exception);
+    }
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
     try (Connection connection = dataSource.getConnection();
          ResultSet rawEntries = statementHandler.handleLoadEntryStatement(connection)) {
-      Collection<ByteTranslatable> data = new HashSet<>();
+      Map<ByteTranslatable, ByteTranslatable> data = new HashMap<>();
 
       while (rawEntries.next()) {
         final ByteTranslatable bytes = ByteTranslatable.fromByteArray(rawEntries.getBytes("entry"));
-        data.add(bytes);
+        data.put(bytes, bytes);
       }
 
       return data;
@@ -79,20 +126,79 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     }
   }
 
+  // Only reached when a subclass saves rows itself, as saveEntries streams changed entries straight to writeRows.
+  @Override
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    Iterator<Map.Entry<ByteTranslatable, ByteTranslatable>> rows = data.entrySet().iterator();
+    writeRows(() -> rows.hasNext() ? Pair.of(rows.next()) : null);
+  }
+
   @Override
-  protected void saveData(Collection<ByteTranslatable> data) {
+  protected void saveEntries(@NotNull Collection<ENTRY> changed) {
+    if (saveConnections <= 1) {
+      lastSaveReport = new SaveReport(List.of(writePartition(0, new ArrayList<>(changed), pipelineWorkers)));
+      return;
+    }
+
+    List<List<ENTRY>> partitions = new ArrayList<>(saveConnections);
+    for (int i = 0; i < saveConnections; i++)
+      partitions.add(new ArrayList<>(changed.size() / saveConnections + 1));
+    for (ENTRY entry : changed)
+      partitions.get(getPartition(entry, saveConnections)).add(entry);
+
+    // Partitions share the serializer threads rather than each getting a full set.
+    int workers = Math.max(1, pipelineWorkers / saveConnections);
+    try (ExecutorService executor = Executors.newFixedThreadPool(saveConnections)) {
+      List<Future<SaveReport.Partition>> writes = new ArrayList<>(saveConnections);
+      for (int i = 0; i < saveConnections; i++) {
+        int index = i;
+        writes.add(executor.submit(() -> writePartition(index, partitions.get(index), workers)));
+      }
+
+      List<SaveReport.Partition> timings = new ArrayList<>(saveConnections);
+      for (Future<SaveReport.Partition> write : writes)
+        timings.add(write.get());
+      lastSaveReport = new SaveReport(timings);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while saving data to SQL database.", exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause)
+        throw cause;
+      throw new RuntimeException("Failed to save data to SQL database.", exception.getCause());
+    }
+  }
+
+  // Entries are serialized on the handoff's own workers, never the common pool, since they block whenever JDBC lags.
+  private SaveReport.Partition writePartition(int index, List<ENTRY> partition, int workers) {
+    long start = System.nanoTime();
+    try (Handoff<Pair<ByteTranslatable, ByteTranslatable>> rows = Handoff.fromWorkers(pipelineCapacity, workers, partition, this::keyed)) {
+      writeRows(rows::take);
+    }
+    return new SaveReport.Partition(index, partition.size(), System.nanoTime() - start);
+  }
+
+  // Writes rows until the source runs dry, committing every bulkWriteSize rows.
+  private void writeRows(Supplier<Pair<ByteTranslatable, ByteTranslatable>> rows) {
     try (Connection connection = dataSource.getConnection()) {
       connection.setAutoCommit(false);
       try (PreparedStatement saveStatement = statementHandler.getSaveEntryStatement(connection)) {
 
-        for (ByteTranslatable entry : data) {
-          saveStatement.setBytes(1, entry.bytes());
+        int batched = 0;
+        for (Pair<ByteTranslatable, ByteTranslatable> row; (row = rows.get()) != null; ) {
+          saveStatement.setBytes(1, row.right().bytes());
           saveStatement.addBatch();
+          if (++batched == bulkWriteSize) {
+            saveStatement.executeBatch();
+            connection.commit();
+            batched = 0;
+          }
         }
 
-        saveStatement.executeBatch();
+        if (batched > 0)
+          saveStatement.executeBatch();
         connection.commit();
-      } catch (SQLException exception) {
+      } catch (SQLException | RuntimeException exception) {
         connection.rollback();
         throw exception;
       }
@@ -101,6 +207,32 @@ public abstract class AbstractSQLDatabase<ENTRY> extends Database<ENTRY> {
     }
   }
 
+  public SaveReport getLastSaveReport() {
+    return lastSaveReport;
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> keys) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement deleteStatement = statementHandler.getDeleteEntryStatement(connection)) {
+
+        for (ByteTranslatable key : keys) {
+          deleteStatement.setBytes(1, key.bytes());
+          deleteStatement.addBatch();
+        }
+
+        deleteStatement.executeBatch();
+        connection.commit();
+      } catch (SQLException exception) {
+        connection.rollback();
+        throw exception;
+      }
+    } catch (SQLException exception) {
+      throw new RuntimeException("Failed to delete data from SQL database.", exception);
+    }
+  }
+
   @Override
   public void close() {
     super.close();
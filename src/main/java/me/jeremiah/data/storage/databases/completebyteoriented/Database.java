@@ -1,48 +1,160 @@
 package me.jeremiah.data.storage.databases.completebyteoriented;
 
 import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
-import me.jeremiah.data.storage.Dirtyable;
 import me.jeremiah.data.storage.ReflectionUtils;
 import me.jeremiah.data.storage.databases.AbstractDatabase;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.stream.Stream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
-public abstract class Database<ENTRY> extends AbstractDatabase<ENTRY, Collection<ByteTranslatable>> {
+public abstract class Database<ENTRY> extends AbstractDatabase<ENTRY, Map<ByteTranslatable, ByteTranslatable>> {
 
-  private final Method serializeMethod;
-  private final Method deserializeMethod;
+  private final Function<Object, ByteTranslatable> serializer;
+  private final Function<Object, ENTRY> deserializer;
+  // The key each entry's row was last loaded or saved under, when rows are keyed by their own encoding.
+  private final Map<ENTRY, ByteTranslatable> storedKeys = Collections.synchronizedMap(new IdentityHashMap<>());
+  // Keys written by the save in progress, recorded as stored once it succeeds.
+  private final Map<ENTRY, ByteTranslatable> savingKeys = Collections.synchronizedMap(new IdentityHashMap<>());
+  // Rows left under a key their entry no longer encodes to, deleted once the entry is saved under its new key.
+  private final Set<ByteTranslatable> staleKeys = ConcurrentHashMap.newKeySet();
 
   protected Database(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
-    this.serializeMethod = ReflectionUtils.getSerializeMethod(entryClass);
-    this.deserializeMethod = ReflectionUtils.getDeserializeMethod(entryClass);
+    this.serializer = ReflectionUtils.getSerializer(entryClass);
+    this.deserializer = ReflectionUtils.getDeserializer(entryClass);
   }
 
   @Override
   protected void loadData() {
-    getData().parallelStream()
-      .forEach(translatable -> add(ReflectionUtils.deserialize(deserializeMethod, translatable)));
+    getData().values().parallelStream().forEach(this::registerSerialized);
+  }
+
+  protected final void registerSerialized(@NotNull ByteTranslatable rawEntry) {
+    ENTRY entry = deserializer.apply(rawEntry);
+    register(entry);
+    if (!keysById())
+      storedKeys.put(entry, rawEntry);
+  }
+
+  @Override
+  protected Optional<ENTRY> loadEntry(@NotNull ByteTranslatable id) {
+    return getData(id).map(data -> deserializer.apply(data));
   }
 
   @Override
   protected void save() {
-    Stream<ENTRY> stream = entries.parallelStream();
+    Collection<ENTRY> removed = drainPendingRemovals();
+    Collection<ENTRY> changed = drainPendingSaves();
+    if (removed.isEmpty() && changed.isEmpty())
+      return;
+
+    try {
+      if (!removed.isEmpty())
+        deleteData(removed.parallelStream().map(this::storedKey).filter(Objects::nonNull).toList());
+
+      if (!changed.isEmpty())
+        saveEntries(changed);
+    } catch (RuntimeException exception) {
+      savingKeys.clear();
+      requeueRemovals(removed);
+      requeueSaves(changed);
+      throw exception;
+    }
+
+    removed.forEach(storedKeys::remove);
+    recordSavedKeys();
+    if (!staleKeys.isEmpty()) {
+      List<ByteTranslatable> stale = List.copyOf(staleKeys);
+      deleteData(stale);
+      stale.forEach(staleKeys::remove);
+    }
+  }
 
-    if (useDirtyable)
-      stream = stream
-        .filter(entry -> ((Dirtyable) entry).isDirty())
-        .peek(entry -> ((Dirtyable) entry).markClean());
+  private void recordSavedKeys() {
+    synchronized (savingKeys) {
+      savingKeys.forEach((entry, key) -> {
+        ByteTranslatable previous = storedKeys.put(entry, key);
+        if (previous != null && !previous.equals(key))
+          staleKeys.add(previous);
+      });
+      savingKeys.clear();
+    }
+  }
 
-    Collection<ByteTranslatable> data = stream
-      .map(entry -> (ByteTranslatable) ReflectionUtils.serialize(serializeMethod, entry))
-      .collect(HashSet::new, HashSet::add, HashSet::addAll);
+  // Only backends keyed by entry id can look a single entry up.
+  @Override
+  protected boolean supportsEntryLookup() {
+    return keysById();
+  }
+
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    throw new UnsupportedOperationException("Single entry lookups are not supported by " + getClass().getSimpleName());
+  }
+
+  @Override
+  protected Pair<ByteTranslatable, ByteTranslatable> encodeJournalEntry(@NotNull ENTRY entry) {
+    return row(entry);
+  }
+
+  @Override
+  protected ENTRY decodeJournalEntry(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    return deserializer.apply(rawEntry.right());
+  }
+
+  protected void saveEntries(@NotNull Collection<ENTRY> changed) {
+    Map<ByteTranslatable, ByteTranslatable> data = changed.parallelStream()
+      .map(this::keyed)
+      .collect(HashMap::new, (map, entry) -> entry.putInto(map), HashMap::putAll);
 
     saveData(data);
   }
 
+  protected abstract void deleteData(Collection<ByteTranslatable> keys);
+
+  // Stored entries are keyed by their own encoding unless the backend keeps a separate entry id.
+  protected boolean keysById() {
+    return false;
+  }
+
+  // Carries a stored row over to the entry replacing it, so the replacement's first save drops the old row.
+  @Override
+  protected void replaced(@NotNull ENTRY previous, @NotNull ENTRY entry) {
+    ByteTranslatable key = storedKeys.remove(previous);
+    if (key != null)
+      storedKeys.put(entry, key);
+  }
+
+  private ByteTranslatable storedKey(ENTRY entry) {
+    return keysById() ? getEntryId(entry) : storedKeys.get(entry);
+  }
+
+  // Builds the row a save writes, remembering its key so the entry can later be deleted by it.
+  protected final Pair<ByteTranslatable, ByteTranslatable> keyed(ENTRY entry) {
+    Pair<ByteTranslatable, ByteTranslatable> row = row(entry);
+    if (!keysById())
+      savingKeys.put(entry, row.left());
+    return row;
+  }
+
+  private Pair<ByteTranslatable, ByteTranslatable> row(ENTRY entry) {
+    ByteTranslatable data = encode(entry);
+    return Pair.of(keysById() ? getEntryId(entry) : data, data);
+  }
+
+  private ByteTranslatable encode(ENTRY entry) {
+    return serializer.apply(entry);
+  }
+
 }
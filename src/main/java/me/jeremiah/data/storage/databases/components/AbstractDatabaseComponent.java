@@ -21,4 +21,6 @@ public abstract class AbstractDatabaseComponent<ENTRY> implements Closeable {
 
   protected abstract void add(ENTRY entry);
 
+  protected abstract void remove(ENTRY entry);
+
 }
@@ -0,0 +1,42 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import me.jeremiah.data.ByteTranslatable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ByteIndexMap<ENTRY> extends IndexMap<ENTRY> {
+
+  private final Map<ByteTranslatable, ENTRY> entries;
+
+  ByteIndexMap(int initialCapacity) {
+    this.entries = new ConcurrentHashMap<>(initialCapacity);
+  }
+
+  @Override
+  Object toKey(Object value) {
+    return toBytes(value);
+  }
+
+  @Override
+  ENTRY get(@NotNull Object rawKey) {
+    return entries.get(toBytes(rawKey));
+  }
+
+  @Override
+  void put(Object key, @NotNull ENTRY entry) {
+    entries.put((ByteTranslatable) key, entry);
+  }
+
+  @Override
+  void remove(Object key, @NotNull ENTRY entry) {
+    entries.remove((ByteTranslatable) key, entry);
+  }
+
+  @Override
+  void clear() {
+    entries.clear();
+  }
+
+}
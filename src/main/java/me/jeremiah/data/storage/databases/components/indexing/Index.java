@@ -1,30 +1,82 @@
 package me.jeremiah.data.storage.databases.components.indexing;
 
+import me.jeremiah.data.storage.FieldAccessor;
+import me.jeremiah.data.storage.ReflectionUtils;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
 
 public final class Index {
 
   private final String id;
+  private final boolean isPrimary;
+  private final boolean isUnique;
+  private final boolean isSearchable;
   private final boolean isFinal;
-  private final Field field;
+  private final Field[] fields;
+  private final FieldAccessor[] accessors;
+
+  public Index(String id, boolean isPrimary, boolean isUnique, boolean isSearchable, Field field) {
+    this(id, isPrimary, isUnique, isSearchable, new Field[] {field});
+    if (isSearchable && field.getType() != String.class)
+      throw new IllegalArgumentException("Searchable index %s must be on a String field".formatted(id));
+  }
+
+  public Index(String id, boolean isUnique, Field... fields) {
+    this(id, false, isUnique, false, fields);
+  }
 
-  public Index(String id, Field field) {
+  private Index(String id, boolean isPrimary, boolean isUnique, boolean isSearchable, Field[] fields) {
     this.id = id;
-    this.isFinal = Modifier.isFinal(field.getModifiers());
-    this.field = field;
+    this.isPrimary = isPrimary;
+    this.isUnique = isUnique;
+    this.isSearchable = isSearchable;
+    this.isFinal = Arrays.stream(fields).allMatch(field -> Modifier.isFinal(field.getModifiers()));
+    this.fields = fields;
+    this.accessors = Arrays.stream(fields).map(ReflectionUtils::getAccessor).toArray(FieldAccessor[]::new);
   }
 
   public String getId() {
     return id;
   }
 
+  public boolean isPrimary() {
+    return isPrimary;
+  }
+
+  public boolean isUnique() {
+    return isUnique;
+  }
+
+  public boolean isSearchable() {
+    return isSearchable;
+  }
+
   public boolean isFinal() {
     return isFinal;
   }
 
+  public boolean isComposite() {
+    return fields.length > 1;
+  }
+
   public Field getField() {
-    return field;
+    return fields[0];
+  }
+
+  public Field[] getFields() {
+    return fields;
+  }
+
+  // Composite indexes read their components into an array, in declaration order.
+  public Object getValue(Object entry) {
+    if (!isComposite())
+      return accessors[0].get(entry);
+    Object[] values = new Object[accessors.length];
+    for (int i = 0; i < accessors.length; i++)
+      values[i] = accessors[i].get(entry);
+    return values;
   }
 
 }
@@ -0,0 +1,76 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import me.jeremiah.data.ByteTranslatable;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+abstract class IndexMap<ENTRY> {
+
+  static <ENTRY> IndexMap<ENTRY> of(@NotNull Index index, int initialCapacity) {
+    IndexMap<ENTRY> exact = exact(index, initialCapacity);
+    if (index.isSearchable())
+      return new SearchableIndexMap<>(exact);
+    if (!index.isComposite() && index.getField().getType() == Location.class)
+      return new SpatialIndexMap<>(exact);
+    return exact;
+  }
+
+  private static <ENTRY> IndexMap<ENTRY> exact(Index index, int initialCapacity) {
+    if (index.isComposite())
+      return index.isUnique() ? new ByteIndexMap<>(initialCapacity) : new MultiIndexMap<>(Object[].class, initialCapacity);
+    Class<?> type = index.getField().getType();
+    if (!index.isUnique())
+      return new MultiIndexMap<>(type, initialCapacity);
+    if (type == UUID.class)
+      return new TypedIndexMap<>(TypedIndexMap.KeyType.UUID, initialCapacity);
+    if (type == long.class || type == Long.class)
+      return new TypedIndexMap<>(TypedIndexMap.KeyType.LONG, initialCapacity);
+    if (type == int.class || type == Integer.class)
+      return new TypedIndexMap<>(TypedIndexMap.KeyType.INT, initialCapacity);
+    if (type == String.class)
+      return new TypedIndexMap<>(TypedIndexMap.KeyType.STRING, initialCapacity);
+    return new ByteIndexMap<>(initialCapacity);
+  }
+
+  // Packs composite values as each component's encoding behind its length, so keys of different splits never collide.
+  static ByteTranslatable toBytes(@NotNull Object value) {
+    if (!(value instanceof Object[] components))
+      return ByteTranslatable.from(value);
+    byte[][] encoded = new byte[components.length][];
+    int length = 0;
+    for (int i = 0; i < components.length; i++) {
+      encoded[i] = ByteTranslatable.from(components[i]).bytes();
+      length += Integer.BYTES + encoded[i].length;
+    }
+    ByteBuffer packed = ByteBuffer.allocate(length);
+    for (byte[] component : encoded)
+      packed.putInt(component.length).put(component);
+    return ByteTranslatable.fromByteArray(packed.array());
+  }
+
+  // Turns a field value into the key entries are filed under.
+  abstract Object toKey(Object value);
+
+  // Accepts either a raw key of the field's type or its ByteTranslatable form.
+  abstract ENTRY get(@NotNull Object rawKey);
+
+  List<ENTRY> getAll(@NotNull Object rawKey) {
+    ENTRY entry = get(rawKey);
+    return entry == null ? List.of() : List.of(entry);
+  }
+
+  int count(@NotNull Object rawKey) {
+    return get(rawKey) == null ? 0 : 1;
+  }
+
+  abstract void put(Object key, @NotNull ENTRY entry);
+
+  abstract void remove(Object key, @NotNull ENTRY entry);
+
+  abstract void clear();
+
+}
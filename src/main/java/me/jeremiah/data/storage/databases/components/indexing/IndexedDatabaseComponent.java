@@ -3,56 +3,118 @@ package me.jeremiah.data.storage.databases.components.indexing;
 import me.jeremiah.data.ByteTranslatable;
 import me.jeremiah.data.storage.ReflectionUtils;
 import me.jeremiah.data.storage.databases.components.AbstractDatabaseComponent;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 public final class IndexedDatabaseComponent<ENTRY> extends AbstractDatabaseComponent<ENTRY> {
 
-  private ScheduledFuture<?> autoRefreshIndexesTask;
-
   private final List<Index> indexes;
-  private Map<String, Map<ByteTranslatable, ENTRY>> indexToEntry;
+  private final Index primaryIndex;
+  private Map<String, IndexMap<ENTRY>> indexToEntry;
+  // The keys each entry is currently filed under, in the order of indexes.
+  private Map<ENTRY, Object[]> entryToKeys;
 
   public IndexedDatabaseComponent(ScheduledExecutorService scheduler, Class<ENTRY> entryClass) {
     super(scheduler);
     this.indexes = ReflectionUtils.getIndexes(entryClass);
+    this.primaryIndex = indexes.stream()
+      .filter(Index::isPrimary)
+      .findFirst()
+      .or(() -> indexes.stream().filter(index -> index.isUnique() && !index.isComposite()).findFirst())
+      .orElse(null);
+    if (primaryIndex != null && (!primaryIndex.isUnique() || primaryIndex.isComposite()))
+      throw new IllegalArgumentException("Primary index %s must be unique and single-field".formatted(primaryIndex.getId()));
   }
 
   @Override
   public void setup(int initialCapacity) {
     indexToEntry = new ConcurrentHashMap<>(indexes.size() + 1, 1);
-    for (Index index : indexes) indexToEntry.put(index.getId(), new ConcurrentHashMap<>(initialCapacity));
-    autoRefreshIndexesTask = getScheduler().scheduleAtFixedRate(this::update, 5, 5, java.util.concurrent.TimeUnit.MINUTES);
+    for (Index index : indexes) indexToEntry.put(index.getId(), IndexMap.of(index, initialCapacity));
+    entryToKeys = new ConcurrentHashMap<>(initialCapacity);
   }
 
   @Override
   public void update() {
-    indexes.parallelStream().filter(index -> !index.isFinal()).forEach(index -> {
-      Map<ByteTranslatable, ENTRY> originalIndex = indexToEntry.get(index.getId());
-      Map<ByteTranslatable, ENTRY> newIndex = originalIndex.values().stream()
-        .collect(HashMap::new, (map, entry) -> map.put(ReflectionUtils.getIndex(index.getField(), entry), entry), HashMap::putAll);
-      indexToEntry.put(index.getId(), newIndex);
-    });
+    entryToKeys.keySet().parallelStream().forEach(this::refresh);
   }
 
   @Override
   public void add(@NotNull ENTRY entry) {
-    for (Index index : indexes) {
-      String indexName = index.getId();
-      ByteTranslatable indexKey = ReflectionUtils.getIndex(index.getField(), entry);
-      indexToEntry.get(indexName).put(indexKey, entry);
+    Object[] keys = new Object[indexes.size()];
+    for (int i = 0; i < keys.length; i++) {
+      Index index = indexes.get(i);
+      IndexMap<ENTRY> indexMap = indexToEntry.get(index.getId());
+      keys[i] = indexMap.toKey(index.getValue(entry));
+      indexMap.put(keys[i], entry);
+    }
+    entryToKeys.put(entry, keys);
+  }
+
+  @Override
+  public void remove(@NotNull ENTRY entry) {
+    Object[] keys = entryToKeys.remove(entry);
+    if (keys == null)
+      return;
+    synchronized (keys) {
+      for (int i = 0; i < keys.length; i++)
+        indexToEntry.get(indexes.get(i).getId()).remove(keys[i], entry);
+    }
+  }
+
+  // Files the entry under its new key before dropping the old one, so lookups by either key never miss in between.
+  public void refresh(@NotNull ENTRY entry) {
+    Object[] keys = entryToKeys.get(entry);
+    if (keys == null)
+      return;
+    synchronized (keys) {
+      // A removal that ran since the keys were read has already dropped them, and the entry must not be filed again.
+      if (entryToKeys.get(entry) != keys)
+        return;
+      for (int i = 0; i < keys.length; i++) {
+        Index index = indexes.get(i);
+        if (index.isFinal())
+          continue;
+        IndexMap<ENTRY> indexMap = indexToEntry.get(index.getId());
+        Object key = indexMap.toKey(index.getValue(entry));
+        if (Objects.equals(key, keys[i]))
+          continue;
+        indexMap.put(key, entry);
+        indexMap.remove(keys[i], entry);
+        keys[i] = key;
+      }
     }
   }
 
+  public ByteTranslatable getPrimaryKey(@NotNull ENTRY entry) {
+    if (primaryIndex == null)
+      throw new IllegalStateException("Entries need an @Indexable field to be identified by id");
+    return ByteTranslatable.from(primaryIndex.getValue(entry));
+  }
+
+  public boolean hasPrimaryIndex() {
+    return primaryIndex != null;
+  }
+
+  public boolean isPrimaryIndex(@NotNull String index) {
+    return primaryIndex != null && primaryIndex.getId().equals(index);
+  }
+
+  public Optional<ENTRY> getByPrimaryKey(@NotNull ByteTranslatable key) {
+    if (primaryIndex == null)
+      return Optional.empty();
+    return Optional.ofNullable(indexToEntry.get(primaryIndex.getId()).get(key));
+  }
+
   public <R> Optional<R> queryByIndex(@NotNull String index, @NotNull Object rawKey, @NotNull Function<ENTRY, R> function) {
     return getByIndex(index, rawKey).map(function);
   }
@@ -65,15 +127,51 @@ public final class IndexedDatabaseComponent<ENTRY> extends AbstractDatabaseCompo
   }
 
   public Optional<ENTRY> getByIndex(@NotNull String index, @NotNull Object rawKey) {
-    ByteTranslatable indexKey = ByteTranslatable.from(rawKey);
-    return Optional.ofNullable(indexToEntry.get(index).get(indexKey));
+    return Optional.ofNullable(indexToEntry.get(index).get(rawKey));
+  }
+
+  public List<ENTRY> getAllByIndex(@NotNull String index, @NotNull Object rawKey) {
+    return indexToEntry.get(index).getAll(rawKey);
+  }
+
+  public int countByIndex(@NotNull String index, @NotNull Object rawKey) {
+    return indexToEntry.get(index).count(rawKey);
+  }
+
+  public List<ENTRY> findByPrefix(@NotNull String index, @NotNull String prefix, int limit) {
+    return getSearchable(index).findByPrefix(prefix, limit);
+  }
+
+  public Optional<ENTRY> getByIndexIgnoreCase(@NotNull String index, @NotNull String key) {
+    return getSearchable(index).getAllIgnoreCase(key).stream().findFirst();
+  }
+
+  public List<ENTRY> withinRadius(@NotNull String index, @NotNull Location center, double radius) {
+    return getSpatial(index).withinRadius(center, radius);
+  }
+
+  public List<ENTRY> inChunk(@NotNull String index, @NotNull World world, int chunkX, int chunkZ) {
+    return getSpatial(index).inChunk(world, chunkX, chunkZ);
+  }
+
+  private SpatialIndexMap<ENTRY> getSpatial(String index) {
+    if (!(indexToEntry.get(index) instanceof SpatialIndexMap<ENTRY> spatial))
+      throw new IllegalArgumentException("Index %s is not on a Location field".formatted(index));
+    return spatial;
+  }
+
+  private SearchableIndexMap<ENTRY> getSearchable(String index) {
+    if (!(indexToEntry.get(index) instanceof SearchableIndexMap<ENTRY> searchable))
+      throw new IllegalArgumentException("Index %s is not searchable".formatted(index));
+    return searchable;
   }
 
   @Override
   public void close() {
-    autoRefreshIndexesTask.cancel(true);
     indexes.clear();
+    indexToEntry.values().forEach(IndexMap::clear);
     indexToEntry.clear();
+    entryToKeys.clear();
   }
 
 }
@@ -0,0 +1,72 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Files any number of entries under one key. Each key holds a growable posting list of its entries, so adding to or
+// removing from a key shared by many entries stays O(1) and readers get a snapshot sized to the result.
+final class MultiIndexMap<ENTRY> extends IndexMap<ENTRY> {
+
+  private final boolean rawKeys;
+  private final Map<Object, PostingList<ENTRY>> postings;
+
+  MultiIndexMap(@NotNull Class<?> type, int initialCapacity) {
+    this.rawKeys = type == UUID.class || type == String.class || type == long.class || type == Long.class
+      || type == int.class || type == Integer.class;
+    this.postings = new ConcurrentHashMap<>(initialCapacity);
+  }
+
+  @Override
+  Object toKey(Object value) {
+    return rawKeys || value == null ? value : toBytes(value);
+  }
+
+  @Override
+  ENTRY get(@NotNull Object rawKey) {
+    PostingList<ENTRY> entries = postings.get(toKey(rawKey));
+    return entries == null ? null : entries.first();
+  }
+
+  @Override
+  List<ENTRY> getAll(@NotNull Object rawKey) {
+    PostingList<ENTRY> entries = postings.get(toKey(rawKey));
+    return entries == null ? List.of() : entries.snapshot();
+  }
+
+  @Override
+  int count(@NotNull Object rawKey) {
+    PostingList<ENTRY> entries = postings.get(toKey(rawKey));
+    return entries == null ? 0 : entries.size();
+  }
+
+  // Null field values are left unindexed.
+  @Override
+  void put(Object key, @NotNull ENTRY entry) {
+    if (key == null)
+      return;
+    postings.compute(key, (ignored, entries) -> {
+      if (entries == null)
+        entries = new PostingList<>(item -> item);
+      entries.put(entry);
+      return entries;
+    });
+  }
+
+  // Drops the key along with its last entry.
+  @Override
+  void remove(Object key, @NotNull ENTRY entry) {
+    if (key == null)
+      return;
+    postings.computeIfPresent(key, (ignored, entries) -> entries.remove(entry) && entries.isEmpty() ? null : entries);
+  }
+
+  @Override
+  void clear() {
+    postings.clear();
+  }
+
+}
@@ -0,0 +1,114 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// The items filed under one index key, at most one per entry. Items sit in a growable array and long lists remember
+// each entry's slot, so adds and removals are amortised O(1) at any length. A removal moves the last item into the gap.
+// Writers are serialised by the owning map's compute, readers copy or walk the items under the list's lock.
+final class PostingList<T> {
+
+  // Lists up to this length find an entry by scanning, which beats hashing and keeps short lists small.
+  private static final int SCAN_LIMIT = 8;
+  private static final int MIN_CAPACITY = 2;
+
+  private final Function<? super T, Object> entryOf;
+  private Object[] items = new Object[MIN_CAPACITY];
+  private int size;
+  private Map<Object, Integer> slots;
+
+  PostingList(@NotNull Function<? super T, Object> entryOf) {
+    this.entryOf = entryOf;
+  }
+
+  // Adds the item, or replaces the one already filed for the same entry.
+  synchronized void put(@NotNull T item) {
+    Object entry = entryOf.apply(item);
+    int slot = slotOf(entry);
+    if (slot >= 0) {
+      items[slot] = item;
+      return;
+    }
+    if (size == items.length)
+      items = Arrays.copyOf(items, size * 2);
+    items[size++] = item;
+    if (slots != null)
+      slots.put(entry, size - 1);
+    else if (size > SCAN_LIMIT)
+      indexSlots();
+  }
+
+  synchronized boolean remove(@NotNull Object entry) {
+    return removeIf(entry, item -> true);
+  }
+
+  // Removes the entry's item only if it still matches, so a stale removal cannot drop a newer item of the entry.
+  @SuppressWarnings("unchecked")
+  synchronized boolean removeIf(@NotNull Object entry, @NotNull Predicate<? super T> matches) {
+    int slot = slotOf(entry);
+    if (slot < 0 || !matches.test((T) items[slot]))
+      return false;
+    int last = --size;
+    if (slots != null)
+      slots.remove(entry);
+    if (slot != last) {
+      items[slot] = items[last];
+      if (slots != null)
+        slots.put(entryOf.apply((T) items[slot]), slot);
+    }
+    items[last] = null;
+    if (items.length > MIN_CAPACITY && size < items.length / 4)
+      items = Arrays.copyOf(items, Math.max(MIN_CAPACITY, items.length / 2));
+    return true;
+  }
+
+  synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  synchronized T first() {
+    return size == 0 ? null : (T) items[0];
+  }
+
+  @SuppressWarnings("unchecked")
+  synchronized List<T> snapshot() {
+    return (List<T>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(items, size)));
+  }
+
+  @SuppressWarnings("unchecked")
+  synchronized void forEach(@NotNull Consumer<? super T> action) {
+    for (int i = 0; i < size; i++)
+      action.accept((T) items[i]);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int slotOf(Object entry) {
+    if (slots != null)
+      return slots.getOrDefault(entry, -1);
+    for (int i = 0; i < size; i++)
+      if (entryOf.apply((T) items[i]) == entry)
+        return i;
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void indexSlots() {
+    slots = new IdentityHashMap<>(SCAN_LIMIT * 4);
+    for (int i = 0; i < size; i++)
+      slots.put(entryOf.apply((T) items[i]), i);
+  }
+
+}
@@ -0,0 +1,116 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Wraps an exact string index with a sorted map of lower-cased keys, so prefix and case-insensitive lookups are a
+// range walk over the matching keys instead of a scan of every entry.
+final class SearchableIndexMap<ENTRY> extends IndexMap<ENTRY> {
+
+  private final IndexMap<ENTRY> exact;
+  private final NavigableMap<String, Object[]> normalized = new ConcurrentSkipListMap<>();
+
+  SearchableIndexMap(@NotNull IndexMap<ENTRY> exact) {
+    this.exact = exact;
+  }
+
+  @Override
+  Object toKey(Object value) {
+    return exact.toKey(value);
+  }
+
+  @Override
+  ENTRY get(@NotNull Object rawKey) {
+    return exact.get(rawKey);
+  }
+
+  @Override
+  List<ENTRY> getAll(@NotNull Object rawKey) {
+    return exact.getAll(rawKey);
+  }
+
+  @Override
+  int count(@NotNull Object rawKey) {
+    return exact.count(rawKey);
+  }
+
+  @SuppressWarnings("unchecked")
+  List<ENTRY> getAllIgnoreCase(@NotNull String key) {
+    Object[] entries = normalized.get(normalize(key));
+    return entries == null ? List.of() : (List<ENTRY>) List.of(entries);
+  }
+
+  @SuppressWarnings("unchecked")
+  List<ENTRY> findByPrefix(@NotNull String prefix, int limit) {
+    if (limit < 0)
+      throw new IllegalArgumentException("Prefix search limit must not be negative, got " + limit);
+    List<ENTRY> found = new ArrayList<>(Math.min(limit, 16));
+    String from = normalize(prefix);
+    for (Object[] entries : normalized.tailMap(from, true).headMap(from + Character.MAX_VALUE, true).values())
+      for (Object entry : entries) {
+        if (found.size() >= limit)
+          return found;
+        found.add((ENTRY) entry);
+      }
+    return found;
+  }
+
+  @Override
+  void put(Object key, @NotNull ENTRY entry) {
+    exact.put(key, entry);
+    if (key != null)
+      normalized.compute(normalize((String) key), (ignored, entries) -> with(entries, entry));
+  }
+
+  @Override
+  void remove(Object key, @NotNull ENTRY entry) {
+    exact.remove(key, entry);
+    if (key != null)
+      normalized.computeIfPresent(normalize((String) key), (ignored, entries) -> without(entries, entry));
+  }
+
+  @Override
+  void clear() {
+    exact.clear();
+    normalized.clear();
+  }
+
+  // Keys differing only in case are rare, so each normalized key keeps a small array that is replaced on change.
+  // That keeps the compute functions pure, which the skip list needs since it may retry them.
+  private static Object[] with(Object[] entries, Object entry) {
+    if (entries == null)
+      return new Object[] {entry};
+    for (Object existing : entries)
+      if (existing == entry)
+        return entries;
+    Object[] grown = Arrays.copyOf(entries, entries.length + 1);
+    grown[entries.length] = entry;
+    return grown;
+  }
+
+  // Returns null once the last entry is gone, which drops the key from a compute.
+  private static Object[] without(Object[] entries, Object entry) {
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i] != entry)
+        continue;
+      if (entries.length == 1)
+        return null;
+      Object[] shrunk = Arrays.copyOf(entries, entries.length - 1);
+      if (i < shrunk.length)
+        shrunk[i] = entries[entries.length - 1];
+      return shrunk;
+    }
+    return entries;
+  }
+
+  private static String normalize(String key) {
+    return key.toLowerCase(Locale.ROOT);
+  }
+
+}
@@ -0,0 +1,168 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import me.jeremiah.data.ByteWriter;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps an exact Location index with a per-world grid of chunks, so proximity queries only visit the chunks a
+// radius covers. Keys snapshot the coordinates, so moving a Location in place is still picked up on refresh.
+final class SpatialIndexMap<ENTRY> extends IndexMap<ENTRY> {
+
+  private static final int CHUNK_SHIFT = 4;
+
+  private final IndexMap<ENTRY> exact;
+  private final Map<UUID, Map<Long, PostingList<Placed>>> worlds = new ConcurrentHashMap<>();
+
+  SpatialIndexMap(@NotNull IndexMap<ENTRY> exact) {
+    this.exact = exact;
+  }
+
+  @Override
+  Object toKey(Object value) {
+    if (!(value instanceof Location location))
+      return exact.toKey(value);
+    World world = location.getWorld();
+    return new Point(exactKey(location), world == null ? null : world.getUID(), location.getX(), location.getY(), location.getZ());
+  }
+
+  @Override
+  ENTRY get(@NotNull Object rawKey) {
+    return exact.get(exactKey(rawKey));
+  }
+
+  @Override
+  List<ENTRY> getAll(@NotNull Object rawKey) {
+    return exact.getAll(exactKey(rawKey));
+  }
+
+  @Override
+  int count(@NotNull Object rawKey) {
+    return exact.count(exactKey(rawKey));
+  }
+
+  // A Location without a world cannot be encoded by ByteTranslatable.fromLocation, so its exact key is built from the
+  // coordinates alone. Its different length keeps it apart from every Location that has a world.
+  private Object exactKey(Object rawKey) {
+    if (!(rawKey instanceof Location location) || location.getWorld() != null)
+      return exact.toKey(rawKey);
+    return new ByteWriter(Double.BYTES * 3 + Float.BYTES * 2)
+      .writeDouble(location.getX())
+      .writeDouble(location.getY())
+      .writeDouble(location.getZ())
+      .writeFloat(location.getYaw())
+      .writeFloat(location.getPitch())
+      .toByteTranslatable();
+  }
+
+  List<ENTRY> withinRadius(@NotNull Location center, double radius) {
+    List<ENTRY> found = new ArrayList<>();
+    World world = center.getWorld();
+    Map<Long, PostingList<Placed>> chunks = world == null ? null : worlds.get(world.getUID());
+    if (chunks == null)
+      return found;
+    double x = center.getX(), y = center.getY(), z = center.getZ();
+    double radiusSquared = radius * radius;
+    int minChunkX = chunk(x - radius), maxChunkX = chunk(x + radius);
+    int minChunkZ = chunk(z - radius), maxChunkZ = chunk(z + radius);
+
+    // A radius spanning more chunks than the world has occupied is cheaper to answer from the occupied ones.
+    if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > chunks.size()) {
+      for (PostingList<Placed> placed : chunks.values())
+        collectWithin(placed, x, y, z, radiusSquared, found);
+      return found;
+    }
+    for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++)
+      for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+        PostingList<Placed> placed = chunks.get(chunkKey(chunkX, chunkZ));
+        if (placed != null)
+          collectWithin(placed, x, y, z, radiusSquared, found);
+      }
+    return found;
+  }
+
+  @SuppressWarnings("unchecked")
+  List<ENTRY> inChunk(@NotNull World world, int chunkX, int chunkZ) {
+    Map<Long, PostingList<Placed>> chunks = worlds.get(world.getUID());
+    PostingList<Placed> placed = chunks == null ? null : chunks.get(chunkKey(chunkX, chunkZ));
+    if (placed == null)
+      return new ArrayList<>();
+    List<ENTRY> found = new ArrayList<>(placed.size());
+    placed.forEach(entry -> found.add((ENTRY) entry.entry()));
+    return found;
+  }
+
+  @Override
+  void put(Object key, @NotNull ENTRY entry) {
+    if (!(key instanceof Point point)) {
+      exact.put(key, entry);
+      return;
+    }
+    exact.put(point.exactKey(), entry);
+    if (point.world() == null)
+      return;
+    worlds.computeIfAbsent(point.world(), ignored -> new ConcurrentHashMap<>())
+      .compute(chunkKey(point), (ignored, placed) -> {
+        if (placed == null)
+          placed = new PostingList<>(Placed::entry);
+        placed.put(new Placed(entry, point));
+        return placed;
+      });
+  }
+
+  // Only drops the placement made for this key. A refresh files the new key first, and a move within the same chunk
+  // replaces the entry's placement there, which removing the old key must leave alone.
+  @Override
+  void remove(Object key, @NotNull ENTRY entry) {
+    if (!(key instanceof Point point)) {
+      exact.remove(key, entry);
+      return;
+    }
+    exact.remove(point.exactKey(), entry);
+    Map<Long, PostingList<Placed>> chunks = point.world() == null ? null : worlds.get(point.world());
+    if (chunks != null)
+      chunks.computeIfPresent(chunkKey(point), (ignored, placed) ->
+        placed.removeIf(entry, current -> current.point().equals(point)) && placed.isEmpty() ? null : placed);
+  }
+
+  @Override
+  void clear() {
+    exact.clear();
+    worlds.clear();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collectWithin(PostingList<Placed> placed, double x, double y, double z, double radiusSquared, List<ENTRY> found) {
+    placed.forEach(entry -> {
+      Point point = entry.point();
+      double dx = point.x() - x, dy = point.y() - y, dz = point.z() - z;
+      if (dx * dx + dy * dy + dz * dz <= radiusSquared)
+        found.add((ENTRY) entry.entry());
+    });
+  }
+
+  private static int chunk(double coordinate) {
+    return (int) Math.floor(coordinate) >> CHUNK_SHIFT;
+  }
+
+  private static long chunkKey(Point point) {
+    return chunkKey(chunk(point.x()), chunk(point.z()));
+  }
+
+  private static long chunkKey(int chunkX, int chunkZ) {
+    return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  private record Point(Object exactKey, UUID world, double x, double y, double z) {
+  }
+
+  private record Placed(Object entry, Point point) {
+  }
+
+}
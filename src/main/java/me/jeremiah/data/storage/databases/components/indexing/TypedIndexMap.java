@@ -0,0 +1,219 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import me.jeremiah.data.ByteTranslatable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+// An open-addressing map over keys unpacked into two longs, plus the key itself for strings, so lookups neither
+// allocate nor hash byte arrays. Writers take the write lock, readers probe optimistically and retry under the read
+// lock if a write got in between.
+final class TypedIndexMap<ENTRY> extends IndexMap<ENTRY> {
+
+  enum KeyType {
+    UUID, LONG, INT, STRING
+  }
+
+  private static final int MINIMUM_CAPACITY = 16;
+
+  private final KeyType keyType;
+  private final StampedLock lock = new StampedLock();
+  private final int initialCapacity;
+
+  private Table table;
+  private int size;
+
+  TypedIndexMap(@NotNull KeyType keyType, int initialCapacity) {
+    this.keyType = keyType;
+    this.initialCapacity = capacityFor(initialCapacity);
+    this.table = new Table(this.initialCapacity, keyType == KeyType.STRING);
+  }
+
+  @Override
+  Object toKey(Object value) {
+    return value;
+  }
+
+  @Override
+  ENTRY get(@NotNull Object rawKey) {
+    return switch (keyType) {
+      case UUID -> rawKey instanceof UUID uuid ? find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null)
+        : rawKey instanceof ByteTranslatable bytes ? get(bytes.asUUID()) : null;
+      case LONG -> rawKey instanceof Long value ? find(0, value, null)
+        : rawKey instanceof ByteTranslatable bytes ? find(0, bytes.asLong(), null) : null;
+      case INT -> rawKey instanceof Integer value ? find(0, value, null)
+        : rawKey instanceof ByteTranslatable bytes ? find(0, bytes.asInt(), null) : null;
+      case STRING -> rawKey instanceof String value ? find(0, value.hashCode(), value)
+        : rawKey instanceof ByteTranslatable bytes ? get(bytes.asString()) : null;
+    };
+  }
+
+  // Null field values are left unindexed.
+  @Override
+  void put(Object key, @NotNull ENTRY entry) {
+    if (key == null)
+      return;
+    long stamp = lock.writeLock();
+    try {
+      if ((size + 1) * 2 > table.values.length)
+        resize(table.values.length * 2);
+      long high = high(key);
+      long low = low(key);
+      Object ref = ref(key);
+      int slot = probe(table, hash(high, low), high, low, ref);
+      if (table.values[slot] == null) {
+        table.set(slot, hash(high, low), high, low, ref, entry);
+        size++;
+      } else
+        table.values[slot] = entry;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  void remove(Object key, @NotNull ENTRY entry) {
+    if (key == null)
+      return;
+    long stamp = lock.writeLock();
+    try {
+      long high = high(key);
+      long low = low(key);
+      int slot = probe(table, hash(high, low), high, low, ref(key));
+      if (table.values[slot] != entry)
+        return;
+      table.delete(slot);
+      size--;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  void clear() {
+    long stamp = lock.writeLock();
+    try {
+      table = new Table(initialCapacity, keyType == KeyType.STRING);
+      size = 0;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ENTRY find(long high, long low, Object ref) {
+    int hash = hash(high, low);
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      Table current = table;
+      Object found = current.values[probe(current, hash, high, low, ref)];
+      if (lock.validate(stamp))
+        return (ENTRY) found;
+    }
+    stamp = lock.readLock();
+    try {
+      return (ENTRY) table.values[probe(table, hash, high, low, ref)];
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  // Returns the slot holding the key, or the empty slot it would go in.
+  private static int probe(Table table, int hash, long high, long low, Object ref) {
+    int mask = table.values.length - 1;
+    int slot = hash & mask;
+    for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+      if (table.values[slot] == null)
+        return slot;
+      if (table.hashes[slot] == hash && table.highs[slot] == high && table.lows[slot] == low
+        && (ref == null || ref == table.refs[slot] || ref.equals(table.refs[slot])))
+        return slot;
+    }
+    return slot;
+  }
+
+  private void resize(int capacity) {
+    Table resized = new Table(capacity, keyType == KeyType.STRING);
+    Table current = table;
+    for (int slot = 0; slot < current.values.length; slot++) {
+      if (current.values[slot] == null)
+        continue;
+      int target = probe(resized, current.hashes[slot], current.highs[slot], current.lows[slot], current.refs == null ? null : current.refs[slot]);
+      resized.set(target, current.hashes[slot], current.highs[slot], current.lows[slot], current.refs == null ? null : current.refs[slot], current.values[slot]);
+    }
+    table = resized;
+  }
+
+  private long high(Object key) {
+    return keyType == KeyType.UUID ? ((UUID) key).getMostSignificantBits() : 0;
+  }
+
+  private long low(Object key) {
+    return switch (keyType) {
+      case UUID -> ((UUID) key).getLeastSignificantBits();
+      case LONG -> (Long) key;
+      case INT -> (Integer) key;
+      case STRING -> key.hashCode();
+    };
+  }
+
+  private Object ref(Object key) {
+    return keyType == KeyType.STRING ? key : null;
+  }
+
+  private static int hash(long high, long low) {
+    long hash = (high * 0x9E3779B97F4A7C15L) ^ low;
+    hash ^= hash >>> 32;
+    hash *= 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 29));
+  }
+
+  private static int capacityFor(int entries) {
+    return Math.max(MINIMUM_CAPACITY, Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) * 2);
+  }
+
+  private static final class Table {
+
+    private final int[] hashes;
+    private final long[] highs;
+    private final long[] lows;
+    private final Object[] refs;
+    private final Object[] values;
+
+    private Table(int capacity, boolean withRefs) {
+      this.hashes = new int[capacity];
+      this.highs = new long[capacity];
+      this.lows = new long[capacity];
+      this.refs = withRefs ? new Object[capacity] : null;
+      this.values = new Object[capacity];
+    }
+
+    private void set(int slot, int hash, long high, long low, Object ref, Object value) {
+      hashes[slot] = hash;
+      highs[slot] = high;
+      lows[slot] = low;
+      if (refs != null)
+        refs[slot] = ref;
+      values[slot] = value;
+    }
+
+    // Shifts later entries of the probe run back into the hole so lookups never need tombstones.
+    private void delete(int slot) {
+      int mask = values.length - 1;
+      int hole = slot;
+      for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+        int home = hashes[next] & mask;
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          set(hole, hashes[next], highs[next], lows[next], refs == null ? null : refs[next], values[next]);
+          hole = next;
+        }
+      }
+      values[hole] = null;
+      if (refs != null)
+        refs[hole] = null;
+    }
+
+  }
+
+}
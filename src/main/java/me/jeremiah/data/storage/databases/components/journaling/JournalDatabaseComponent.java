@@ -0,0 +1,235 @@
+package me.jeremiah.data.storage.databases.components.journaling;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
+import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.databases.components.AbstractDatabaseComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public final class JournalDatabaseComponent<ENTRY> extends AbstractDatabaseComponent<ENTRY> {
+
+  private static final byte SAVED = 1;
+  private static final byte REMOVED = 2;
+  private static final ByteTranslatable NONE = ByteTranslatable.fromByteArray(new byte[0]);
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  // Records are laid out as [length][crc32][type][first length][first][second length][second].
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+  private ScheduledFuture<?> autoForceTask;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final Function<ENTRY, Pair<ByteTranslatable, ByteTranslatable>> encoder;
+  private final Function<ENTRY, ByteTranslatable> identifier;
+
+  private List<Path> unreplayedSegments;
+  private long segmentNumber;
+  private MappedByteBuffer segment;
+
+  private boolean operating = false;
+
+  public JournalDatabaseComponent(ScheduledExecutorService scheduler, DatabaseInfo info,
+                                  Function<ENTRY, Pair<ByteTranslatable, ByteTranslatable>> encoder,
+                                  Function<ENTRY, ByteTranslatable> identifier) {
+    super(scheduler);
+    this.directory = info.getJournalDirectory();
+    this.segmentSize = info.getJournalSegmentSize();
+    this.encoder = encoder;
+    this.identifier = identifier;
+    if (directory != null)
+      operating = true;
+  }
+
+  @Override
+  public void setup(int initialCapacity) {
+    if (!operating)
+      return;
+    try {
+      Files.createDirectories(directory);
+      try (Stream<Path> files = Files.list(directory)) {
+        unreplayedSegments = files.filter(file -> segmentNumber(file) >= 0)
+          .sorted((file1, file2) -> Long.compare(segmentNumber(file1), segmentNumber(file2)))
+          .toList();
+      }
+      segmentNumber = unreplayedSegments.isEmpty() ? 0 : segmentNumber(unreplayedSegments.getLast()) + 1;
+      segment = openSegment(segmentNumber, segmentSize);
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to open journal in " + directory, exception);
+    }
+    autoForceTask = getScheduler().scheduleAtFixedRate(this::update, 1, 1, TimeUnit.SECONDS);
+  }
+
+  public void replay(@NotNull Consumer<Pair<ByteTranslatable, ByteTranslatable>> saved, @NotNull Consumer<ByteTranslatable> removed) {
+    if (!operating)
+      return;
+    for (Path file : unreplayedSegments)
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        Pair<Byte, Pair<ByteTranslatable, ByteTranslatable>> record;
+        while ((record = readRecord(records)) != null)
+          if (record.left() == SAVED)
+            saved.accept(record.right());
+          else
+            removed.accept(record.right().left());
+      } catch (IOException exception) {
+        throw new RuntimeException("Failed to replay journal segment " + file, exception);
+      }
+    unreplayedSegments = List.of();
+  }
+
+  @Override
+  public void update() {
+    if (!operating)
+      return;
+    synchronized (this) {
+      segment.force();
+    }
+  }
+
+  @Override
+  public void add(@NotNull ENTRY entry) {
+    if (!operating)
+      return;
+    Pair<ByteTranslatable, ByteTranslatable> rawEntry = encoder.apply(entry);
+    append(SAVED, rawEntry.left(), rawEntry.right());
+  }
+
+  @Override
+  public void remove(@NotNull ENTRY entry) {
+    if (!operating)
+      return;
+    append(REMOVED, identifier.apply(entry), NONE);
+  }
+
+  public synchronized long rotate() {
+    if (!operating)
+      return 0;
+    segment.force();
+    segment = openSegment(++segmentNumber, segmentSize);
+    return segmentNumber;
+  }
+
+  public void truncate(long checkpoint) {
+    if (!operating)
+      return;
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(file -> {
+        long number = segmentNumber(file);
+        return number >= 0 && number < checkpoint;
+      }).toList())
+        Files.deleteIfExists(file);
+    } catch (IOException exception) {
+      Logger.getGlobal().log(Level.WARNING, "Failed to truncate journal in " + directory, exception);
+    }
+  }
+
+  private synchronized void append(byte type, ByteTranslatable first, ByteTranslatable second) {
+    byte[] firstBytes = first.bytes();
+    byte[] secondBytes = second.bytes();
+    int length = Byte.BYTES + Integer.BYTES + firstBytes.length + Integer.BYTES + secondBytes.length;
+
+    byte[] payload = ByteBuffer.allocate(length)
+      .put(type)
+      .putInt(firstBytes.length).put(firstBytes)
+      .putInt(secondBytes.length).put(secondBytes)
+      .array();
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+
+    // The periodic force only reaches the current segment, so the outgoing one is flushed before it is dropped.
+    if (segment.remaining() < HEADER_SIZE + length) {
+      segment.force();
+      segment = openSegment(++segmentNumber, Math.max(segmentSize, HEADER_SIZE * 2 + length));
+    }
+
+    // The length is written last so a crash mid-append leaves the record unreadable instead of torn.
+    int position = segment.position();
+    segment.put(position + HEADER_SIZE, payload);
+    segment.putInt(position + Integer.BYTES, (int) crc.getValue());
+    segment.putInt(position, length);
+    segment.position(position + HEADER_SIZE + length);
+  }
+
+  private static Pair<Byte, Pair<ByteTranslatable, ByteTranslatable>> readRecord(ByteBuffer records) {
+    if (records.remaining() < HEADER_SIZE)
+      return null;
+    int length = records.getInt();
+    int checksum = records.getInt();
+    if (length <= 0 || length > records.remaining())
+      return null;
+
+    byte[] payload = new byte[length];
+    records.get(payload);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    if ((int) crc.getValue() != checksum)
+      return null;
+
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(payload);
+      byte type = buffer.get();
+      byte[] first = new byte[buffer.getInt()];
+      buffer.get(first);
+      byte[] second = new byte[buffer.getInt()];
+      buffer.get(second);
+      return Pair.of(type, Pair.of(ByteTranslatable.fromByteArray(first), ByteTranslatable.fromByteArray(second)));
+    } catch (BufferUnderflowException | NegativeArraySizeException exception) {
+      return null;
+    }
+  }
+
+  private MappedByteBuffer openSegment(long number, int size) {
+    Path file = directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to open journal segment " + file, exception);
+    }
+  }
+
+  private static long segmentNumber(Path file) {
+    String name = file.getFileName().toString();
+    if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+      return -1;
+    try {
+      return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException exception) {
+      return -1;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!operating)
+      return;
+    operating = false;
+    autoForceTask.cancel(false);
+    synchronized (this) {
+      segment.force();
+      segment = null;
+    }
+  }
+
+}
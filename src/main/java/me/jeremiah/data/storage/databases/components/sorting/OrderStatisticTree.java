@@ -0,0 +1,448 @@
+package me.jeremiah.data.storage.databases.components.sorting;
+
+import me.jeremiah.data.storage.FieldAccessor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+// A treap ordered by (sorted value, insertion order) whose nodes track their subtree size, so ranks resolve in O(log n).
+// Nodes are immutable and writers path-copy, so readers walk whichever root was last published without locking.
+// A positive limit keeps only the best entries, the owner refills the tree from every entry once it falls short.
+final class OrderStatisticTree<ENTRY> {
+
+  // Rebuilt trees hand out priorities in bands by depth, leaving room above the root for later inserts.
+  private static final int PRIORITY_BAND = 1 << 26;
+
+  private final FieldAccessor accessor;
+  private final int limit;
+  private final AtomicBoolean refillQueued = new AtomicBoolean();
+  private final Map<ENTRY, Node<ENTRY>> nodes = new IdentityHashMap<>();
+
+  private volatile Node<ENTRY> root;
+  private long nextTiebreaker;
+
+  OrderStatisticTree(@NotNull FieldAccessor accessor, int limit) {
+    this.accessor = accessor;
+    this.limit = limit;
+  }
+
+  synchronized void add(@NotNull ENTRY entry) {
+    if (nodes.containsKey(entry))
+      return;
+    Node<ENTRY> node = new Node<>(entry, accessor.get(entry), nextTiebreaker++, ThreadLocalRandom.current().nextInt(), null, null);
+    if (isFull() && compare(node, getNode(root, limit - 1)) > 0)
+      return;
+    nodes.put(entry, node);
+    root = insert(root, node);
+    if (limit > 0 && size(root) > limit) {
+      Node<ENTRY> last = getNode(root, limit);
+      nodes.remove(last.entry);
+      root = delete(root, last);
+    }
+  }
+
+  // Returns whether a bounded tree may now be missing an entry that ranks within its limit.
+  synchronized boolean remove(@NotNull ENTRY entry) {
+    Node<ENTRY> node = nodes.remove(entry);
+    if (node == null)
+      return false;
+    root = delete(root, node);
+    return limit > 0;
+  }
+
+  // Returns whether a bounded tree may now be missing an entry that ranks within its limit.
+  synchronized boolean reposition(@NotNull ENTRY entry) {
+    Node<ENTRY> node = nodes.get(entry);
+    if (node == null) {
+      if (limit > 0)
+        add(entry);
+      return false;
+    }
+    Object value = accessor.get(entry);
+    if (accessor.compare(value, node.value) == 0)
+      return false;
+    Node<ENTRY> repositioned = new Node<>(entry, value, node.tiebreaker, node.priority, null, null);
+    nodes.put(entry, repositioned);
+    root = insert(delete(root, node), repositioned);
+    return limit > 0 && compare(repositioned, node) > 0;
+  }
+
+  boolean queueRefill() {
+    return refillQueued.compareAndSet(false, true);
+  }
+
+  synchronized void rebuild(@NotNull Collection<ENTRY> source) {
+    refillQueued.set(false);
+    publish(limit > 0 ? selectBest(source) : sortAll(source));
+  }
+
+  // Reads every sort key once, into a primitive array for numeric fields, and sorts the positions against it.
+  private Node<ENTRY>[] sortAll(Collection<ENTRY> source) {
+    List<ENTRY> entries = new ArrayList<>(source);
+    int count = entries.size();
+    long[] tiebreakers = new long[count];
+    for (int i = 0; i < count; i++)
+      tiebreakers[i] = tiebreakerOf(entries.get(i));
+
+    Class<?> type = accessor.getType();
+    IntFunction<Object> values;
+    PositionOrder keyOrder;
+    if (type == double.class || type == float.class) {
+      double[] keys = new double[count];
+      for (int i = 0; i < count; i++)
+        keys[i] = accessor.getDouble(entries.get(i));
+      values = type == float.class ? position -> (float) keys[position] : position -> keys[position];
+      keyOrder = (position1, position2) -> Double.compare(keys[position2], keys[position1]);
+    } else if (type.isPrimitive() && type != boolean.class) {
+      long[] keys = new long[count];
+      for (int i = 0; i < count; i++)
+        keys[i] = accessor.getLong(entries.get(i));
+      values = boxer(type, keys);
+      keyOrder = (position1, position2) -> Long.compare(keys[position2], keys[position1]);
+    } else {
+      Object[] keys = new Object[count];
+      for (int i = 0; i < count; i++)
+        keys[i] = accessor.get(entries.get(i));
+      values = position -> keys[position];
+      keyOrder = (position1, position2) -> accessor.compare(keys[position1], keys[position2]);
+    }
+
+    int[] positions = new int[count];
+    Arrays.setAll(positions, i -> i);
+    new PositionSort(positions, new int[count], 0, count, (position1, position2) -> {
+      int compared = keyOrder.compare(position1, position2);
+      return compared != 0 ? compared : Long.compare(tiebreakers[position1], tiebreakers[position2]);
+    }).invoke();
+
+    Node<ENTRY>[] sorted = newNodes(count);
+    for (int i = 0; i < count; i++) {
+      int position = positions[i];
+      sorted[i] = new Node<>(entries.get(position), values.apply(position), tiebreakers[position], 0, null, null);
+    }
+    return sorted;
+  }
+
+  // Boxes integral keys back into the field's own wrapper, which the tree compares node values as.
+  private static IntFunction<Object> boxer(Class<?> type, long[] keys) {
+    if (type == int.class)
+      return position -> (int) keys[position];
+    if (type == short.class)
+      return position -> (short) keys[position];
+    if (type == byte.class)
+      return position -> (byte) keys[position];
+    if (type == char.class)
+      return position -> (char) keys[position];
+    return position -> keys[position];
+  }
+
+  // Keeps the best entries in a heap whose head is the worst of them, so only limit keys are held at once.
+  private Node<ENTRY>[] selectBest(Collection<ENTRY> source) {
+    PriorityQueue<Node<ENTRY>> best = new PriorityQueue<>(limit + 1, (node1, node2) -> compare(node2, node1));
+    for (ENTRY entry : source) {
+      Object value = accessor.get(entry);
+      if (best.size() >= limit && accessor.compare(value, best.peek().value) > 0)
+        continue;
+      best.add(new Node<>(entry, value, tiebreakerOf(entry), 0, null, null));
+      if (best.size() > limit)
+        best.poll();
+    }
+
+    Node<ENTRY>[] sorted = best.toArray(newNodes(0));
+    Arrays.sort(sorted, this::compare);
+    return sorted;
+  }
+
+  private void publish(Node<ENTRY>[] sorted) {
+    Node<ENTRY> rebuilt = build(sorted, 0, sorted.length, 0);
+    nodes.clear();
+    for (Node<ENTRY> node : sorted)
+      nodes.put(node.entry, node);
+    root = rebuilt;
+  }
+
+  private long tiebreakerOf(ENTRY entry) {
+    Node<ENTRY> node = nodes.get(entry);
+    return node != null ? node.tiebreaker : nextTiebreaker++;
+  }
+
+  private boolean isFull() {
+    return limit > 0 && size(root) >= limit;
+  }
+
+  // Builds a balanced tree over the sorted keys, replacing each key with its linked node.
+  private static <ENTRY> Node<ENTRY> build(Node<ENTRY>[] sorted, int from, int to, int depth) {
+    if (from >= to)
+      return null;
+    int middle = (from + to) >>> 1;
+    Node<ENTRY> left = build(sorted, from, middle, depth + 1);
+    Node<ENTRY> right = build(sorted, middle + 1, to, depth + 1);
+    Node<ENTRY> key = sorted[middle];
+    int priority = Integer.MAX_VALUE - PRIORITY_BAND * (depth + 1) + ThreadLocalRandom.current().nextInt(PRIORITY_BAND);
+    return sorted[middle] = new Node<>(key.entry, key.value, key.tiebreaker, priority, left, right);
+  }
+
+  ENTRY get(int rank) {
+    Node<ENTRY> node = getNode(root, rank);
+    return node == null ? null : node.entry;
+  }
+
+  int rankOf(@NotNull ENTRY entry) {
+    // The node and the root are read together, as a reposition in between would leave the node out of the tree walked.
+    Node<ENTRY> target;
+    Node<ENTRY> node;
+    synchronized (this) {
+      target = nodes.get(entry);
+      node = root;
+    }
+    if (target == null)
+      return -1;
+    int rank = 0;
+    while (node != null) {
+      int compared = compare(target, node);
+      if (compared == 0)
+        return rank + size(node.left);
+      if (compared < 0)
+        node = node.left;
+      else {
+        rank += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return -1;
+  }
+
+  int countBefore(Object value) {
+    return countBefore(root, value, false);
+  }
+
+  List<ENTRY> getRange(int from, int to) {
+    Node<ENTRY> tree = root;
+    List<ENTRY> range = new ArrayList<>(Math.max(0, Math.min(to, size(tree)) - Math.max(from, 0)));
+    collect(tree, 0, from, to, range);
+    return range;
+  }
+
+  List<ENTRY> getRangeByValue(Object min, Object max) {
+    Node<ENTRY> tree = root;
+    int from = countBefore(tree, max, false);
+    int to = countBefore(tree, min, true);
+    List<ENTRY> range = new ArrayList<>(Math.max(0, to - from));
+    collect(tree, 0, from, to, range);
+    return range;
+  }
+
+  int size() {
+    return size(root);
+  }
+
+  synchronized void clear() {
+    nodes.clear();
+    root = null;
+  }
+
+  private static <ENTRY> Node<ENTRY> getNode(Node<ENTRY> node, int rank) {
+    while (node != null) {
+      int leftSize = size(node.left);
+      if (rank < leftSize)
+        node = node.left;
+      else if (rank > leftSize) {
+        rank -= leftSize + 1;
+        node = node.right;
+      } else
+        return node;
+    }
+    return null;
+  }
+
+  // Counts the nodes ordered before the value, or at or before it when inclusive.
+  private int countBefore(Node<?> node, Object value, boolean inclusive) {
+    int count = 0;
+    while (node != null) {
+      int compared = accessor.compare(node.value, value);
+      if (compared < 0 || inclusive && compared == 0) {
+        count += size(node.left) + 1;
+        node = node.right;
+      } else
+        node = node.left;
+    }
+    return count;
+  }
+
+  private static <ENTRY> void collect(Node<ENTRY> node, int offset, int from, int to, List<ENTRY> range) {
+    if (node == null || offset >= to || offset + node.size <= from)
+      return;
+    int rank = offset + size(node.left);
+    collect(node.left, offset, from, to, range);
+    if (rank >= from && rank < to)
+      range.add(node.entry);
+    collect(node.right, rank + 1, from, to, range);
+  }
+
+  private Node<ENTRY> insert(Node<ENTRY> tree, Node<ENTRY> node) {
+    if (tree == null)
+      return node;
+    if (node.priority > tree.priority) {
+      Node<ENTRY>[] split = split(tree, node);
+      return node.with(split[0], split[1]);
+    }
+    if (compare(node, tree) < 0)
+      return tree.with(insert(tree.left, node), tree.right);
+    return tree.with(tree.left, insert(tree.right, node));
+  }
+
+  private Node<ENTRY> delete(Node<ENTRY> tree, Node<ENTRY> node) {
+    if (tree == null)
+      return null;
+    int compared = compare(node, tree);
+    if (compared == 0)
+      return merge(tree.left, tree.right);
+    if (compared < 0)
+      return tree.with(delete(tree.left, node), tree.right);
+    return tree.with(tree.left, delete(tree.right, node));
+  }
+
+  // Splits into the nodes ordered before the pivot and the nodes ordered after it.
+  private Node<ENTRY>[] split(Node<ENTRY> tree, Node<ENTRY> pivot) {
+    if (tree == null)
+      return newNodes(2);
+    if (compare(tree, pivot) < 0) {
+      Node<ENTRY>[] split = split(tree.right, pivot);
+      split[0] = tree.with(tree.left, split[0]);
+      return split;
+    }
+    Node<ENTRY>[] split = split(tree.left, pivot);
+    split[1] = tree.with(split[1], tree.right);
+    return split;
+  }
+
+  private static <ENTRY> Node<ENTRY> merge(Node<ENTRY> left, Node<ENTRY> right) {
+    if (left == null)
+      return right;
+    if (right == null)
+      return left;
+    if (left.priority > right.priority)
+      return left.with(left.left, merge(left.right, right));
+    return right.with(merge(left, right.left), right.right);
+  }
+
+  private int compare(Node<?> node1, Node<?> node2) {
+    int compared = accessor.compare(node1.value, node2.value);
+    return compared != 0 ? compared : Long.compare(node1.tiebreaker, node2.tiebreaker);
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <ENTRY> Node<ENTRY>[] newNodes(int length) {
+    return (Node<ENTRY>[]) new Node<?>[length];
+  }
+
+  // Orders two positions of the keys read for a rebuild, without boxing either.
+  @FunctionalInterface
+  private interface PositionOrder {
+
+    int compare(int position1, int position2);
+
+  }
+
+  // A stable merge sort of positions that forks its halves across the common pool once they are large enough.
+  @SuppressWarnings("serial")
+  private static final class PositionSort extends RecursiveAction {
+
+    private static final int INSERTION_THRESHOLD = 32;
+    private static final int FORK_THRESHOLD = 1 << 13;
+
+    private final int[] positions;
+    private final int[] buffer;
+    private final int from;
+    private final int to;
+    private final PositionOrder order;
+
+    private PositionSort(int[] positions, int[] buffer, int from, int to, PositionOrder order) {
+      this.positions = positions;
+      this.buffer = buffer;
+      this.from = from;
+      this.to = to;
+      this.order = order;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= INSERTION_THRESHOLD) {
+        insertionSort();
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      PositionSort left = new PositionSort(positions, buffer, from, middle, order);
+      PositionSort right = new PositionSort(positions, buffer, middle, to, order);
+      if (to - from >= FORK_THRESHOLD)
+        invokeAll(left, right);
+      else {
+        left.compute();
+        right.compute();
+      }
+      if (order.compare(positions[middle - 1], positions[middle]) > 0)
+        merge(middle);
+    }
+
+    private void insertionSort() {
+      for (int i = from + 1; i < to; i++) {
+        int position = positions[i];
+        int j = i - 1;
+        for (; j >= from && order.compare(positions[j], position) > 0; j--)
+          positions[j + 1] = positions[j];
+        positions[j + 1] = position;
+      }
+    }
+
+    private void merge(int middle) {
+      System.arraycopy(positions, from, buffer, from, middle - from);
+      int left = from;
+      int right = middle;
+      int target = from;
+      while (left < middle && right < to)
+        positions[target++] = order.compare(buffer[left], positions[right]) <= 0 ? buffer[left++] : positions[right++];
+      System.arraycopy(buffer, left, positions, target, middle - left);
+    }
+
+  }
+
+  private static final class Node<ENTRY> {
+
+    private final ENTRY entry;
+    private final Object value;
+    private final long tiebreaker;
+    private final int priority;
+    private final int size;
+    private final Node<ENTRY> left;
+    private final Node<ENTRY> right;
+
+    private Node(ENTRY entry, Object value, long tiebreaker, int priority, Node<ENTRY> left, Node<ENTRY> right) {
+      this.entry = entry;
+      this.value = value;
+      this.tiebreaker = tiebreaker;
+      this.priority = priority;
+      this.left = left;
+      this.right = right;
+      this.size = 1 + size(left) + size(right);
+    }
+
+    private Node<ENTRY> with(Node<ENTRY> left, Node<ENTRY> right) {
+      return new Node<>(entry, value, tiebreaker, priority, left, right);
+    }
+
+  }
+
+}
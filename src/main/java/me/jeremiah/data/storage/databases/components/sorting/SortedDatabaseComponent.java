@@ -1,33 +1,33 @@
 package me.jeremiah.data.storage.databases.components.sorting;
 
 import me.jeremiah.data.storage.ReflectionUtils;
+import me.jeremiah.data.storage.Sorted;
 import me.jeremiah.data.storage.databases.components.AbstractDatabaseComponent;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class SortedDatabaseComponent<ENTRY> extends AbstractDatabaseComponent<ENTRY> {
 
-  private ScheduledFuture<?> autoSortTask;
-
   private final Map<String, Field> sortedFields;
-  private Map<String, List<ENTRY>> sortedEntries;
+  private final Supplier<Collection<ENTRY>> entries;
+  private Map<String, OrderStatisticTree<ENTRY>> sortedEntries;
 
   private boolean operating = false;
 
-  public SortedDatabaseComponent(ScheduledExecutorService scheduler, Class<ENTRY> entryClass) {
+  public SortedDatabaseComponent(ScheduledExecutorService scheduler, Class<ENTRY> entryClass, Supplier<Collection<ENTRY>> entries) {
     super(scheduler);
+    this.entries = entries;
     this.sortedFields = ReflectionUtils.getSortedFields(entryClass);
     if (!sortedFields.isEmpty())
       operating = true;
@@ -37,29 +37,49 @@ public final class SortedDatabaseComponent<ENTRY> extends AbstractDatabaseCompon
     if (!operating)
       return;
     sortedEntries = new ConcurrentHashMap<>(sortedFields.size() + 1, 1);
-    for (String field : sortedFields.keySet())
-      sortedEntries.put(field, Collections.synchronizedList(new ArrayList<>(doubledEntryCount)));
-    autoSortTask = getScheduler().scheduleAtFixedRate(this::update, 5, 5, TimeUnit.MINUTES);
+    sortedFields.forEach((sortedKey, field) -> sortedEntries.put(sortedKey, new OrderStatisticTree<>(ReflectionUtils.getAccessor(field), field.getAnnotation(Sorted.class).topK())));
   }
 
   @Override
   public void update() {
     if (!operating)
       return;
-    sortedEntries.entrySet().parallelStream().forEach(sortedEntries -> {
-        Field field = sortedFields.get(sortedEntries.getKey());
-        sortedEntries.getValue().sort((entry1, entry2) ->
-          ReflectionUtils.compareSortedFields(field, entry1, entry2)
-        );
-      }
-    );
+    Collection<ENTRY> source = entries.get();
+    sortedEntries.values().parallelStream().forEach(sorted -> sorted.rebuild(source));
   }
 
   @Override
   public void add(@NotNull ENTRY entry) {
     if (!operating)
       return;
-    sortedFields.keySet().forEach(sortedKey -> sortedEntries.get(sortedKey).add(entry));
+    sortedEntries.values().forEach(sorted -> sorted.add(entry));
+  }
+
+  @Override
+  public void remove(@NotNull ENTRY entry) {
+    if (!operating)
+      return;
+    sortedEntries.values().forEach(sorted -> {
+      if (sorted.remove(entry))
+        refill(sorted);
+    });
+  }
+
+  public void refresh(@NotNull ENTRY entry) {
+    if (!operating)
+      return;
+    sortedEntries.values().forEach(sorted -> {
+      if (sorted.reposition(entry))
+        refill(sorted);
+    });
+  }
+
+  private void refill(OrderStatisticTree<ENTRY> sorted) {
+    if (entries.get().size() > sorted.size() && sorted.queueRefill())
+      getScheduler().execute(() -> {
+        if (operating)
+          sorted.rebuild(entries.get());
+      });
   }
 
   public <R> Optional<R> querySorted(@NotNull String sorted, int index, @NotNull Function<ENTRY, R> function) {
@@ -83,12 +103,37 @@ public final class SortedDatabaseComponent<ENTRY> extends AbstractDatabaseCompon
     return Optional.ofNullable(sortedEntries.get(sorted).get(index));
   }
 
+  public OptionalInt rankOf(@NotNull String sorted, @NotNull ENTRY entry) {
+    if (!operating)
+      return OptionalInt.empty();
+    int rank = sortedEntries.get(sorted).rankOf(entry);
+    return rank < 0 ? OptionalInt.empty() : OptionalInt.of(rank);
+  }
+
+  public List<ENTRY> getSortedRange(@NotNull String sorted, int from, int to) {
+    if (!operating)
+      return List.of();
+    return sortedEntries.get(sorted).getRange(from, to);
+  }
+
+  public List<ENTRY> rangeByValue(@NotNull String sorted, Object min, Object max) {
+    if (!operating)
+      return List.of();
+    return sortedEntries.get(sorted).getRangeByValue(min, max);
+  }
+
+  public int countAbove(@NotNull String sorted, Object value) {
+    if (!operating)
+      return 0;
+    return sortedEntries.get(sorted).countBefore(value);
+  }
+
   @Override
   public void close() {
     if (!operating)
       return;
     operating = false;
-    autoSortTask.cancel(true);
+    sortedEntries.values().forEach(OrderStatisticTree::clear);
     sortedEntries.clear();
     sortedFields.clear();
   }
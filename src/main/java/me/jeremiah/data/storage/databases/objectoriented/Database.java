@@ -1,41 +1,171 @@
 package me.jeremiah.data.storage.databases.objectoriented;
 
 import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
-import me.jeremiah.data.storage.Dirtyable;
+import me.jeremiah.data.storage.codecs.EntryCodec;
 import me.jeremiah.data.storage.databases.AbstractDatabase;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-public abstract class Database<ENTRY extends Serializable> extends AbstractDatabase<ENTRY, Collection<ByteTranslatable>> {
+public abstract class Database<ENTRY extends Serializable> extends AbstractDatabase<ENTRY, Map<ByteTranslatable, ByteTranslatable>> {
+
+  private final EntryCodec codec;
+  // The key each entry's row was last loaded or saved under, when rows are keyed by their own encoding.
+  private final Map<ENTRY, ByteTranslatable> storedKeys = Collections.synchronizedMap(new IdentityHashMap<>());
+  // Keys written by the save in progress, recorded as stored once it succeeds.
+  private final Map<ENTRY, ByteTranslatable> savingKeys = Collections.synchronizedMap(new IdentityHashMap<>());
+  // Rows left under a key their entry no longer encodes to, deleted once the entry is saved under its new key.
+  private final Set<ByteTranslatable> staleKeys = ConcurrentHashMap.newKeySet();
 
   protected Database(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
+    this.codec = info.getEntryCodec();
   }
 
   @Override
   protected void loadData() {
-    getData().parallelStream().forEach(bytes -> add(bytes.asSerializable()));
+    getData().entrySet().parallelStream().forEach(row -> registerSerialized(row.getKey(), row.getValue()));
+  }
+
+  // For rows stored under their own encoding.
+  protected final void registerSerialized(@NotNull ByteTranslatable rawEntry) {
+    registerSerialized(rawEntry, rawEntry);
+  }
+
+  // Rewrites rows from an older codec on the next save, which also drops them under their old key.
+  protected final void registerSerialized(@NotNull ByteTranslatable key, @NotNull ByteTranslatable rawEntry) {
+    ENTRY entry = decode(rawEntry);
+    register(entry);
+    if (!keysById())
+      storedKeys.put(entry, key);
+    if (codec.isOutdated(rawEntry.asByteArray()))
+      queueSave(entry);
+  }
+
+  @Override
+  protected Optional<ENTRY> loadEntry(@NotNull ByteTranslatable id) {
+    return getData(id).map(this::decode);
   }
 
   @Override
   protected void save() {
-    Stream<ENTRY> stream = entries.parallelStream();
+    Collection<ENTRY> removed = drainPendingRemovals();
+    Collection<ENTRY> changed = drainPendingSaves();
+    if (removed.isEmpty() && changed.isEmpty())
+      return;
+
+    try {
+      if (!removed.isEmpty())
+        deleteData(removed.parallelStream().map(this::storedKey).filter(Objects::nonNull).toList());
+
+      if (!changed.isEmpty())
+        saveEntries(changed);
+    } catch (RuntimeException exception) {
+      savingKeys.clear();
+      requeueRemovals(removed);
+      requeueSaves(changed);
+      throw exception;
+    }
+
+    removed.forEach(storedKeys::remove);
+    recordSavedKeys();
+    if (!staleKeys.isEmpty()) {
+      List<ByteTranslatable> stale = List.copyOf(staleKeys);
+      deleteData(stale);
+      stale.forEach(staleKeys::remove);
+    }
+  }
+
+  private void recordSavedKeys() {
+    synchronized (savingKeys) {
+      savingKeys.forEach((entry, key) -> {
+        ByteTranslatable previous = storedKeys.put(entry, key);
+        if (previous != null && !previous.equals(key))
+          staleKeys.add(previous);
+      });
+      savingKeys.clear();
+    }
+  }
+
+  // Only backends keyed by entry id can look a single entry up.
+  @Override
+  protected boolean supportsEntryLookup() {
+    return keysById();
+  }
+
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    throw new UnsupportedOperationException("Single entry lookups are not supported by " + getClass().getSimpleName());
+  }
+
+  @Override
+  protected Pair<ByteTranslatable, ByteTranslatable> encodeJournalEntry(@NotNull ENTRY entry) {
+    return row(entry);
+  }
 
-    if (useDirtyable)
-      stream = stream
-        .filter(entry -> ((Dirtyable) entry).isDirty())
-        .peek(entry -> ((Dirtyable) entry).markClean());
+  @Override
+  protected ENTRY decodeJournalEntry(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    return decode(rawEntry.right());
+  }
 
-    Collection<ByteTranslatable> data = stream
-      .map(ByteTranslatable::fromSerializable)
-      .collect(Collectors.toUnmodifiableSet());
+  protected void saveEntries(@NotNull Collection<ENTRY> changed) {
+    Map<ByteTranslatable, ByteTranslatable> data = changed.parallelStream()
+      .map(this::keyed)
+      .collect(HashMap::new, (map, entry) -> entry.putInto(map), HashMap::putAll);
 
     saveData(data);
   }
 
+  protected abstract void deleteData(Collection<ByteTranslatable> keys);
+
+  // Stored entries are keyed by their own encoding unless the backend keeps a separate entry id.
+  protected boolean keysById() {
+    return false;
+  }
+
+  // Carries a stored row over to the entry replacing it, so the replacement's first save drops the old row.
+  @Override
+  protected void replaced(@NotNull ENTRY previous, @NotNull ENTRY entry) {
+    ByteTranslatable key = storedKeys.remove(previous);
+    if (key != null)
+      storedKeys.put(entry, key);
+  }
+
+  private ByteTranslatable storedKey(ENTRY entry) {
+    return keysById() ? getEntryId(entry) : storedKeys.get(entry);
+  }
+
+  // Builds the row a save writes, remembering its key so the entry can later be deleted by it.
+  protected final Pair<ByteTranslatable, ByteTranslatable> keyed(ENTRY entry) {
+    Pair<ByteTranslatable, ByteTranslatable> row = row(entry);
+    if (!keysById())
+      savingKeys.put(entry, row.left());
+    return row;
+  }
+
+  private Pair<ByteTranslatable, ByteTranslatable> row(ENTRY entry) {
+    ByteTranslatable data = encode(entry);
+    return Pair.of(keysById() ? getEntryId(entry) : data, data);
+  }
+
+  private ByteTranslatable encode(ENTRY entry) {
+    return ByteTranslatable.fromByteArray(codec.encode(entry));
+  }
+
+  @SuppressWarnings("unchecked")
+  private ENTRY decode(ByteTranslatable rawEntry) {
+    return (ENTRY) codec.decode(rawEntry.asByteArray());
+  }
+
 }
@@ -3,7 +3,6 @@ package me.jeremiah.data.storage.databases.objectoriented;
 import com.zaxxer.hikari.HikariConfig;
 import me.jeremiah.data.storage.DatabaseInfo;
 import me.jeremiah.data.storage.SQLStatementHandler;
-import me.jeremiah.data.storage.databases.byteoriented.AbstractSQLDatabase;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
@@ -14,7 +13,8 @@ public final class H2<ENTRY extends Serializable> extends AbstractSQLDatabase<EN
     "CREATE TABLE IF NOT EXISTS entries(entry VARBINARY PRIMARY KEY);",
     "SELECT COUNT(*) FROM entries;",
     "SELECT * FROM entries;",
-    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);"
+    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);",
+    "DELETE FROM entries WHERE entry = ?;"
   );
 
   public H2(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
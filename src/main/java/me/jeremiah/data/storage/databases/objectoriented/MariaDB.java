@@ -13,7 +13,8 @@ public final class MariaDB<ENTRY extends Serializable> extends AbstractSQLDataba
     "CREATE TABLE IF NOT EXISTS entries(entry VARBINARY PRIMARY KEY);",
     "SELECT COUNT(*) FROM entries;",
     "SELECT * FROM entries;",
-    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);"
+    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);",
+    "DELETE FROM entries WHERE entry = ?;"
   );
 
   public MariaDB(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
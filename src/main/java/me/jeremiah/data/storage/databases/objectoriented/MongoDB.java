@@ -7,8 +7,12 @@ import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.IndexOptions;
-import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
 import me.jeremiah.data.ByteTranslatable;
 import me.jeremiah.data.storage.DatabaseInfo;
 import org.bson.Document;
@@ -19,13 +23,16 @@ import org.jetbrains.annotations.NotNull;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public final class MongoDB<ENTRY extends Serializable> extends Database<ENTRY> {
 
   private final MongoClient client;
   private final MongoCollection<Document> accounts;
+  private final int bulkWriteSize;
 
   public MongoDB(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
@@ -39,6 +46,7 @@ public final class MongoDB<ENTRY extends Serializable> extends Database<ENTRY> {
     client = MongoClients.create(settings);
     accounts = client.getDatabase(info.getName()).getCollection("accounts");
     accounts.createIndex(new Document("entry_id", 1), new IndexOptions().unique(true));
+    bulkWriteSize = info.getBulkWriteSize();
 
     setup();
   }
@@ -49,28 +57,69 @@ public final class MongoDB<ENTRY extends Serializable> extends Database<ENTRY> {
   }
 
   @Override
-  protected Collection<ByteTranslatable> getData() {
-    Collection<ByteTranslatable> data = new HashSet<>();
+  protected boolean keysById() {
+    return true;
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
+    Map<ByteTranslatable, ByteTranslatable> data = new HashMap<>();
     for (Document document : accounts.find()) {
-      ByteTranslatable entry = ByteTranslatable.fromByteArray(document.get("entry", Binary.class).getData());
-      data.add(entry);
+      ByteTranslatable entryId = ByteTranslatable.fromByteArray(document.get("entry_id", Binary.class).getData());
+      ByteTranslatable entryData = ByteTranslatable.fromByteArray(document.get("entry", Binary.class).getData());
+      data.put(entryId, entryData);
     }
     return data;
   }
 
   @Override
-  protected void saveData(Collection<ByteTranslatable> data) {
-    accounts.deleteMany(new Document());
-
-    List<InsertOneModel<Document>> writeModels = new ArrayList<>();
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    Document document = accounts.find(Filters.eq("entry_id", new Binary(id.bytes()))).first();
+    if (document == null)
+      return Optional.empty();
+    return Optional.of(ByteTranslatable.fromByteArray(document.get("entry", Binary.class).getData()));
+  }
 
-    for (ByteTranslatable entry : data) {
-      writeModels.add(new InsertOneModel<>(
-        new Document("entry", new Binary(entry.bytes()))
+  @Override
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    List<ReplaceOneModel<Document>> writeModels = new ArrayList<>(data.size());
+    ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+
+    for (Map.Entry<ByteTranslatable, ByteTranslatable> entry : data.entrySet()) {
+      Binary entryId = new Binary(entry.getKey().bytes());
+      writeModels.add(new ReplaceOneModel<>(
+        Filters.eq("entry_id", entryId),
+        new Document("entry_id", entryId).append("entry", new Binary(entry.getValue().bytes())),
+        upsert
       ));
     }
 
-    accounts.bulkWrite(writeModels, new BulkWriteOptions().ordered(false));
+    bulkWrite(writeModels);
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> ids) {
+    List<DeleteManyModel<Document>> writeModels = new ArrayList<>();
+
+    List<Binary> batch = new ArrayList<>(bulkWriteSize);
+    for (ByteTranslatable id : ids) {
+      batch.add(new Binary(id.bytes()));
+      if (batch.size() == bulkWriteSize) {
+        writeModels.add(new DeleteManyModel<>(Filters.in("entry_id", batch)));
+        batch = new ArrayList<>(bulkWriteSize);
+      }
+    }
+    if (!batch.isEmpty())
+      writeModels.add(new DeleteManyModel<>(Filters.in("entry_id", batch)));
+
+    bulkWrite(writeModels);
+  }
+
+  private void bulkWrite(List<? extends WriteModel<Document>> writeModels) {
+    for (int from = 0; from < writeModels.size(); from += bulkWriteSize) {
+      int to = Math.min(from + bulkWriteSize, writeModels.size());
+      accounts.bulkWrite(writeModels.subList(from, to), new BulkWriteOptions().ordered(false));
+    }
   }
 
   @Override
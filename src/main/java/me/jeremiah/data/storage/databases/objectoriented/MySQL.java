@@ -13,7 +13,8 @@ public final class MySQL<ENTRY extends Serializable> extends AbstractSQLDatabase
     "CREATE TABLE IF NOT EXISTS entries(entry VARBINARY PRIMARY KEY);",
     "SELECT COUNT(*) FROM entries;",
     "SELECT * FROM entries;",
-    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);"
+    "INSERT INTO entries(entry) VALUES(?) ON DUPLICATE KEY UPDATE entry = VALUES(entry);",
+    "DELETE FROM entries WHERE entry = ?;"
   );
 
   public MySQL(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
@@ -25,6 +26,7 @@ public final class MySQL<ENTRY extends Serializable> extends AbstractSQLDatabase
     hikariConfig.setJdbcUrl("jdbc:mysql://%s/%s".formatted(databaseInfo.getUrl(), databaseInfo.getName()));
     hikariConfig.setUsername(databaseInfo.getUsername());
     hikariConfig.setPassword(databaseInfo.getPassword());
+    hikariConfig.addDataSourceProperty("useCursorFetch", "true");
   }
 
 }
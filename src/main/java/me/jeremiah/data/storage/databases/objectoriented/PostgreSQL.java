@@ -13,7 +13,8 @@ public final class PostgreSQL<ENTRY extends Serializable> extends AbstractSQLDat
     "CREATE TABLE IF NOT EXISTS entries(entry VARBINARY PRIMARY KEY);",
     "SELECT COUNT(*) FROM entries;",
     "SELECT * FROM entries;",
-    "INSERT INTO entries(entry) VALUES(?) ON CONFLICT(entry) DO UPDATE SET entry = EXCLUDED.entry;"
+    "INSERT INTO entries(entry) VALUES(?) ON CONFLICT(entry) DO UPDATE SET entry = EXCLUDED.entry;",
+    "DELETE FROM entries WHERE entry = ?;"
   );
 
   public PostgreSQL(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
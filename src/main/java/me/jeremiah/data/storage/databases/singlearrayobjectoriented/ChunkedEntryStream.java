@@ -0,0 +1,84 @@
+package me.jeremiah.data.storage.databases.singlearrayobjectoriented;
+
+import me.jeremiah.data.storage.Handoff;
+import me.jeremiah.data.storage.codecs.EntryCodec;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Stores entries as length-prefixed chunks so neither direction needs the whole array on heap, and chunks are coded in parallel.
+// Layout: a magic number, then each chunk's length followed by the codec's encoding of its entries, then a zero length.
+public final class ChunkedEntryStream {
+
+  private static final int MAGIC = 0xCAC0DE01;
+
+  private ChunkedEntryStream() {
+  }
+
+  // Only capacity encoded chunks wait for the writer at once, bounding memory by chunk size rather than entry count.
+  // Chunks are encoded on the handoff's own workers, as they block whenever the output falls behind.
+  public static void write(@NotNull OutputStream output, @NotNull Collection<?> entries, @NotNull EntryCodec codec, int chunkSize, int capacity, int workers) throws IOException {
+    List<?> snapshot = List.copyOf(entries);
+    int chunkCount = (snapshot.size() + chunkSize - 1) / chunkSize;
+    List<List<?>> slices = IntStream.range(0, chunkCount)
+      .<List<?>>mapToObj(chunk -> snapshot.subList(chunk * chunkSize, Math.min(snapshot.size(), (chunk + 1) * chunkSize)))
+      .toList();
+    DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(output));
+    stream.writeInt(MAGIC);
+    try (Handoff<byte[]> chunks = Handoff.fromWorkers(capacity, workers, slices, codec::encodeAll)) {
+      for (byte[] chunk; (chunk = chunks.take()) != null; ) {
+        stream.writeInt(chunk.length);
+        stream.write(chunk);
+      }
+    }
+    stream.writeInt(0);
+    stream.flush();
+  }
+
+  // Returns whether the data should be rewritten, either because it predates the chunked layout or holds chunks from an older codec.
+  public static boolean read(@NotNull InputStream input, @NotNull EntryCodec codec, int capacity, int workers, @NotNull Consumer<Object> consumer) throws IOException {
+    DataInputStream stream = new DataInputStream(new BufferedInputStream(input));
+    stream.mark(Integer.BYTES);
+    byte[] header = stream.readNBytes(Integer.BYTES);
+    if (header.length < Integer.BYTES || toInt(header) != MAGIC) {
+      stream.reset();
+      byte[] data = stream.readAllBytes();
+      if (data.length > 0)
+        codec.decodeAll(data, consumer);
+      return data.length > 0;
+    }
+
+    AtomicBoolean outdated = new AtomicBoolean();
+    try (Handoff<byte[]> chunks = Handoff.toWorkers(capacity, workers, chunk -> {
+      if (codec.isOutdated(chunk))
+        outdated.set(true);
+      codec.decodeAll(chunk, consumer);
+    })) {
+      for (int length; (length = stream.readInt()) != 0; ) {
+        byte[] chunk = stream.readNBytes(length);
+        if (chunk.length < length)
+          throw new EOFException("Stored entries end partway through a chunk");
+        chunks.put(chunk);
+      }
+      chunks.finish();
+    }
+    return outdated.get();
+  }
+
+  private static int toInt(byte[] bytes) {
+    return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF;
+  }
+
+}
@@ -1,50 +1,98 @@
 package me.jeremiah.data.storage.databases.singlearrayobjectoriented;
 
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
 import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.codecs.EntryCodec;
 import me.jeremiah.data.storage.databases.AbstractDatabase;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.Collection;
 
 public abstract class Database<ENTRY extends Serializable> extends AbstractDatabase<ENTRY, byte[]> {
 
+  private final EntryCodec codec;
+  private final int chunkSize;
+  private final int pipelineWorkers;
+  // Set when the stored array predates the chunked layout or the current codec, so the next save rewrites it even without changes.
+  private volatile boolean outdated;
+
   protected Database(@NotNull DatabaseInfo info, @NotNull Class<ENTRY> entryClass) {
     super(info, entryClass);
+    this.codec = info.getEntryCodec();
+    this.chunkSize = info.getChunkSize();
+    this.pipelineWorkers = info.getPipelineWorkers();
   }
 
   @Override
   @SuppressWarnings("unchecked")
   protected void loadData() {
+    try (InputStream input = openInput()) {
+      if (input != null)
+        outdated = ChunkedEntryStream.read(input, codec, pipelineWorkers * 2, pipelineWorkers, entry -> register((ENTRY) entry));
+    } catch (IOException exception) {
+      throw new RuntimeException("Failed to load entries", exception);
+    }
+  }
+
+  // Backends that can stream their blob or file should override openInput, openOutput and discardOutput;
+  // the defaults go through getData and saveData with the whole array on heap.
+  protected InputStream openInput() {
     byte[] data = getData();
-    if (data == null || data.length == 0) return;
+    return data == null ? null : new ByteArrayInputStream(data);
+  }
 
-    try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
-      while (true) {
-        ENTRY entry = (ENTRY) inputStream.readObject();
-        add(entry);
+  // The stream is only closed once every chunk is written, so closing it is what commits the new array.
+  protected OutputStream openOutput() {
+    return new ByteArrayOutputStream() {
+      @Override
+      public void close() {
+        saveData(toByteArray());
       }
-    } catch (EOFException ignored) {
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    };
+  }
+
+  // Called instead of closing the stream when a save fails partway through.
+  protected void discardOutput(@NotNull OutputStream output) {
+  }
+
+  @Override
+  protected Pair<ByteTranslatable, ByteTranslatable> encodeJournalEntry(@NotNull ENTRY entry) {
+    ByteTranslatable data = ByteTranslatable.fromByteArray(codec.encode(entry));
+    return Pair.of(data, data);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected ENTRY decodeJournalEntry(@NotNull Pair<ByteTranslatable, ByteTranslatable> rawEntry) {
+    return (ENTRY) codec.decode(rawEntry.right().asByteArray());
   }
 
   @Override
   protected void save() {
-    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-         ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
-      for (ENTRY entry : entries)
-        objectStream.writeObject(entry);
-      objectStream.flush();
-      saveData(byteStream.toByteArray());
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    Collection<ENTRY> removed = drainPendingRemovals();
+    Collection<ENTRY> changed = drainPendingSaves();
+    if (removed.isEmpty() && changed.isEmpty() && !outdated)
+      return;
+
+    OutputStream output = null;
+    try {
+      output = openOutput();
+      ChunkedEntryStream.write(output, entries, codec, chunkSize, pipelineWorkers * 2, pipelineWorkers);
+      output.close();
+      outdated = false;
+    } catch (IOException | RuntimeException e) {
+      if (output != null)
+        discardOutput(output);
+      requeueRemovals(removed);
+      requeueSaves(changed);
+      throw e instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException("Failed to save entries", e);
     }
   }
 
@@ -0,0 +1,161 @@
+package me.jeremiah.data;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class TestByteWriter {
+
+  @Test
+  public void valuesRoundTrip() {
+    UUID id = UUID.randomUUID();
+    byte[] bytes = ByteWriter.local()
+      .writeBoolean(true)
+      .writeByte(-7)
+      .writeShort((short) -12345)
+      .writeChar('€')
+      .writeInt(Integer.MIN_VALUE)
+      .writeLong(Long.MAX_VALUE)
+      .writeFloat(1.5f)
+      .writeDouble(-Math.PI)
+      .writeUUID(id)
+      .writeString("Test_Username")
+      .writeString(null)
+      .writeBytes(new byte[]{1, 2, 3})
+      .writeInts(new int[]{-1, 0, 1})
+      .writeLongs(new long[]{Long.MIN_VALUE})
+      .writeDoubles(new double[]{0.25, Double.NaN})
+      .toByteArray();
+
+    ByteReader reader = new ByteReader(bytes);
+    assert reader.readBoolean();
+    assert reader.readByte() == -7;
+    assert reader.readShort() == -12345;
+    assert reader.readChar() == '€';
+    assert reader.readInt() == Integer.MIN_VALUE;
+    assert reader.readLong() == Long.MAX_VALUE;
+    assert reader.readFloat() == 1.5f;
+    assert reader.readDouble() == -Math.PI;
+    assert id.equals(reader.readUUID());
+    assert "Test_Username".equals(reader.readString());
+    assert reader.readString() == null;
+    assert Arrays.equals(reader.readBytes(), new byte[]{1, 2, 3});
+    assert Arrays.equals(reader.readInts(), new int[]{-1, 0, 1});
+    assert Arrays.equals(reader.readLongs(), new long[]{Long.MIN_VALUE});
+    assert Arrays.equals(reader.readDoubles(), new double[]{0.25, Double.NaN});
+    assert reader.remaining() == 0 : "Reader should consume exactly what was written";
+  }
+
+  @Test
+  public void writerGrows() {
+    ByteWriter writer = new ByteWriter(1);
+    for (int i = 0; i < 1000; i++)
+      writer.writeLong(i);
+    ByteReader reader = new ByteReader(writer.toByteArray());
+    for (int i = 0; i < 1000; i++)
+      assert reader.readLong() == i : "Growing the buffer lost data";
+  }
+
+  @Test
+  public void exactCapacityIsNotCopied() {
+    ByteWriter writer = new ByteWriter(Long.BYTES);
+    writer.writeLong(42);
+    assert writer.toByteArray() == writer.toByteArray() : "A full buffer should be handed out as is";
+  }
+
+  @Test
+  public void stringsMatchUtf8() {
+    String value = "café € 😀 done";
+    byte[] bytes = new ByteWriter().writeString(value).toByteArray();
+    byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+    assert new ByteReader(bytes).readInt() == expected.length : "Encoded length mismatch";
+    assert Arrays.equals(Arrays.copyOfRange(bytes, Integer.BYTES, bytes.length), expected) : "Encoding differs from String.getBytes";
+    assert value.equals(new ByteReader(bytes).readString()) : "String failed to round trip";
+  }
+
+  @Test
+  public void unpairedSurrogatesBecomeQuestionMarks() {
+    String value = "a\uD800b\uDC00c\uD83D";
+    byte[] bytes = new ByteWriter().writeString(value).toByteArray();
+    byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+    assert new ByteReader(bytes).readInt() == expected.length : "Encoded length mismatch";
+    assert Arrays.equals(Arrays.copyOfRange(bytes, Integer.BYTES, bytes.length), expected) : "Encoding differs from String.getBytes";
+    assert "a?b?c?".equals(new ByteReader(bytes).readString()) : "Unpaired surrogates should read back as '?'";
+  }
+
+  @Test
+  public void layoutMatchesByteTranslatable() {
+    UUID id = UUID.randomUUID();
+    assert Arrays.equals(new ByteWriter().writeUUID(id).toByteArray(), ByteTranslatable.fromUUID(id).bytes()) : "UUID layout differs";
+    assert Arrays.equals(new ByteWriter().writeLong(-3L).toByteArray(), ByteTranslatable.fromLong(-3L).bytes()) : "Long layout differs";
+    Location location = new Location(world(), 1.5, 64, -20.25, 90f, -45f);
+    assert Arrays.equals(new ByteWriter().writeLocation(location).toByteArray(), ByteTranslatable.fromLocation(location).bytes()) : "Location layout differs";
+  }
+
+  @Test
+  public void nestedLocalWritersStaySeparate() {
+    ByteWriter outer = ByteWriter.local().writeInt(1);
+    byte[] inner = ByteWriter.local().writeInt(2).toByteArray();
+    byte[] outerBytes = outer.writeInt(3).toByteArray();
+    assert Arrays.equals(inner, ByteTranslatable.fromInt(2).bytes()) : "Inner writer was corrupted";
+    ByteReader reader = new ByteReader(outerBytes);
+    assert reader.readInt() == 1 && reader.readInt() == 3 : "Outer writer was corrupted";
+  }
+
+  @Test
+  public void failedSerializersReleaseTheLocalWriter() {
+    ByteWriter leased = null;
+    try (ByteWriter writer = ByteWriter.local()) {
+      leased = writer;
+      writer.writeInt(1);
+      throw new IllegalStateException("Serializer failed");
+    } catch (IllegalStateException ignored) {
+    }
+    try (ByteWriter writer = ByteWriter.local()) {
+      assert writer == leased : "A writer closed after a failure should be handed out again";
+      assert writer.position() == 0 : "A reused writer should start empty";
+    }
+  }
+
+  @Test
+  public void oversizedEntriesStillRoundTrip() {
+    byte[] large = new byte[1 << 20];
+    Arrays.fill(large, (byte) 7);
+    byte[] bytes;
+    try (ByteWriter writer = ByteWriter.local()) {
+      bytes = writer.writeBytes(large).toByteArray();
+    }
+    assert Arrays.equals(new ByteReader(bytes).readBytes(), large) : "Large entry failed to round trip";
+    try (ByteWriter writer = ByteWriter.local()) {
+      assert Arrays.equals(writer.writeInt(5).toByteArray(), ByteTranslatable.fromInt(5).bytes()) : "Writer reused after a large entry was corrupted";
+    }
+  }
+
+  @Test
+  public void readingPastTheEndFails() {
+    ByteReader reader = new ByteReader(new ByteWriter().writeInt(Integer.MAX_VALUE).toByteArray());
+    boolean failed = false;
+    try {
+      reader.readBytes();
+    } catch (IndexOutOfBoundsException exception) {
+      failed = true;
+    }
+    assert failed : "A length beyond the data should fail before allocating";
+  }
+
+  private static World world() {
+    UUID id = UUID.nameUUIDFromBytes("world".getBytes());
+    return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "getUID" -> id;
+      case "hashCode" -> id.hashCode();
+      case "equals" -> proxy == args[0];
+      default -> throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+}
@@ -1,6 +1,8 @@
 package me.jeremiah.data.storage;
 
+import me.jeremiah.data.ByteReader;
 import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.ByteWriter;
 import me.jeremiah.data.Pair;
 
 import java.io.Serial;
@@ -14,25 +16,8 @@ public class TestDatabaseObject implements Dirtyable, Serializable {
 
   @Deserializer
   public static TestDatabaseObject deserialize(Pair<ByteTranslatable, ByteTranslatable> entry) {
-    UUID id = entry.left().asUUID();
-
-    byte[] bytes = entry.right().asByteArray();
-
-    int nameLength = 0;
-    nameLength |= (bytes[0] & 0xFF) << 24;
-    nameLength |= (bytes[1] & 0xFF) << 16;
-    nameLength |= (bytes[2] & 0xFF) << 8;
-    nameLength |= (bytes[3] & 0xFF);
-
-    byte[] nameBytes = new byte[nameLength];
-    System.arraycopy(bytes, 4, nameBytes, 0, nameLength);
-    String name = new String(nameBytes);
-
-    byte age = bytes[4 + nameLength];
-
-    boolean isCool = bytes[5 + nameLength] == 1;
-
-    return new TestDatabaseObject(id, name, age, isCool);
+    ByteReader reader = new ByteReader(entry.right());
+    return new TestDatabaseObject(entry.left().asUUID(), reader.readString(), reader.readByte(), reader.readBoolean());
   }
 
   @Indexable(id = "id")
@@ -64,25 +49,13 @@ public class TestDatabaseObject implements Dirtyable, Serializable {
 
   @Serializer
   public Pair<ByteTranslatable, ByteTranslatable> serialize() {
-    ByteTranslatable id = ByteTranslatable.fromUUID(this.id);
-
-    byte[] bytes = new byte[Integer.BYTES + name.length() + Byte.BYTES + Byte.BYTES];
-
-    int nameLength = name.length();
-    bytes[0] = (byte) (nameLength >>> 24);
-    bytes[1] = (byte) (nameLength >>> 16);
-    bytes[2] = (byte) (nameLength >>> 8);
-    bytes[3] = (byte) nameLength;
-
-    int i = 0;
-    for (byte b : name.getBytes())
-      bytes[4 + i++] = b;
-
-    bytes[4 + nameLength] = age;
-
-    bytes[5 + nameLength] = (byte) (isCool ? 1 : 0);
-
-    return new Pair<>(id, ByteTranslatable.fromByteArray(bytes));
+    try (ByteWriter writer = ByteWriter.local()) {
+      ByteTranslatable data = writer.writeString(name)
+        .writeByte(age)
+        .writeBoolean(isCool)
+        .toByteTranslatable();
+      return new Pair<>(ByteTranslatable.fromUUID(id), data);
+    }
   }
 
   @Override
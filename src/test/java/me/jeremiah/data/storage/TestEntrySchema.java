@@ -0,0 +1,84 @@
+package me.jeremiah.data.storage;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.function.Function;
+
+public class TestEntrySchema {
+
+  private static final class Unannotated {
+
+    private final long count = 5_000_000_000L;
+    private final float ratio = 1.5f;
+    private final String label = "plain";
+
+  }
+
+  @Test
+  public void schemaIsGenerated() {
+    assert ReflectionUtils.getSchema(TestDatabaseObject.class) != null : "Schema processor did not run on the test sources";
+  }
+
+  @Test
+  public void accessorsMatchReflection() throws IllegalAccessException {
+    TestDatabaseObject testObject = new TestDatabaseObject(42);
+    for (String name : new String[]{"id", "name", "age"}) {
+      Field field = getField(name);
+      FieldAccessor accessor = ReflectionUtils.getAccessor(field);
+      assert !accessor.getClass().isHidden() : "Field %s should be read through the schema".formatted(name);
+      assert accessor.getType() == field.getType() : "Schema reports the wrong type for " + name;
+      assert field.get(testObject).equals(accessor.get(testObject)) : "Schema read the wrong value for " + name;
+    }
+    assert ReflectionUtils.getAccessor(getField("age")).getLong(testObject) == 42 : "Schema read the wrong primitive value";
+  }
+
+  @Test
+  public void uncoveredFieldsGetConstantAccessors() throws NoSuchFieldException {
+    Unannotated plain = new Unannotated();
+    FieldAccessor count = uncoveredAccessor("count");
+    FieldAccessor ratio = uncoveredAccessor("ratio");
+    FieldAccessor label = uncoveredAccessor("label");
+    assert count.getClass().isHidden() && count.getClass() != ratio.getClass() : "Each uncovered field should get its own hidden accessor";
+    assert count.getType() == long.class && count.getLong(plain) == 5_000_000_000L && count.get(plain).equals(5_000_000_000L) : "Long accessor read the wrong value";
+    assert ratio.getDouble(plain) == 1.5 && ratio.get(plain).equals(1.5f) : "Float accessor read the wrong value";
+    assert label.get(plain).equals("plain") : "Reference accessor read the wrong value";
+  }
+
+  private static FieldAccessor uncoveredAccessor(String name) throws NoSuchFieldException {
+    Field field = Unannotated.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return ReflectionUtils.getAccessor(field);
+  }
+
+  @Test
+  public void comparatorMatchesSortOrder() {
+    FieldAccessor age = ReflectionUtils.getAccessor(getField("age"));
+    byte[] values = {Byte.MIN_VALUE, -1, 0, 1, Byte.MAX_VALUE};
+    for (byte value1 : values)
+      for (byte value2 : values)
+        assert Integer.signum(age.compare(value1, value2)) == Integer.signum(ReflectionUtils.compareSortedValues(value1, value2)) : "Schema orders %d and %d differently".formatted(value1, value2);
+    assert age.compare(null, (byte) 1) < 0 : "Null values should rank first";
+  }
+
+  @Test
+  public void codecRoundTrips() {
+    TestDatabaseObject testObject = new TestDatabaseObject(7);
+    Function<Object, Pair<ByteTranslatable, ByteTranslatable>> serializer = ReflectionUtils.getSerializer(TestDatabaseObject.class);
+    Function<Object, TestDatabaseObject> deserializer = ReflectionUtils.getDeserializer(TestDatabaseObject.class);
+    assert testObject.equals(deserializer.apply(serializer.apply(testObject))) : "Schema codec failed to round trip";
+  }
+
+  private static Field getField(String name) {
+    try {
+      Field field = TestDatabaseObject.class.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException exception) {
+      throw new RuntimeException("Failed to find field " + name, exception);
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+package me.jeremiah.data.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class TestHandoff {
+
+  private static final int ITEM_COUNT = 100_000;
+
+  @Test
+  public void workersConsumeEveryItem() {
+    Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+    try (Handoff<Integer> handoff = Handoff.toWorkers(64, 4, consumed::add)) {
+      for (int i = 0; i < ITEM_COUNT; i++)
+        handoff.put(i);
+      handoff.finish();
+    }
+    assert consumed.size() == ITEM_COUNT : "Workers missed items";
+  }
+
+  @Test
+  public void producerItemsReachConsumer() {
+    int taken = 0;
+    try (Handoff<Integer> handoff = Handoff.fromProducer(64, sink -> IntStream.range(0, ITEM_COUNT).parallel().boxed().forEach(sink))) {
+      while (handoff.take() != null)
+        taken++;
+    }
+    assert taken == ITEM_COUNT : "Consumer missed items";
+  }
+
+  @Test
+  public void mappedItemsReachConsumer() {
+    List<Integer> items = IntStream.range(0, ITEM_COUNT).boxed().toList();
+    Set<String> taken = new HashSet<>();
+    try (Handoff<String> handoff = Handoff.fromWorkers(64, 4, items, String::valueOf)) {
+      for (String item; (item = handoff.take()) != null; )
+        taken.add(item);
+    }
+    assert taken.size() == ITEM_COUNT : "Consumer missed mapped items";
+  }
+
+  @Test
+  public void mappingFailureReachesConsumer() {
+    boolean failed = false;
+    try (Handoff<Integer> handoff = Handoff.fromWorkers(4, 2, List.of(1, 2, 3), item -> {
+      throw new IllegalStateException("Failed to map " + item);
+    })) {
+      handoff.take();
+    } catch (IllegalStateException exception) {
+      failed = true;
+    }
+    assert failed : "Mapping failure should be rethrown";
+  }
+
+  @Test
+  public void workerFailureReachesProducer() {
+    boolean failed = false;
+    try (Handoff<Integer> handoff = Handoff.toWorkers(4, 2, item -> {
+      throw new IllegalStateException("Failed to consume " + item);
+    })) {
+      for (int i = 0; i < ITEM_COUNT; i++)
+        handoff.put(i);
+      handoff.finish();
+    } catch (IllegalStateException exception) {
+      failed = true;
+    }
+    assert failed : "Worker failure should be rethrown";
+  }
+
+}
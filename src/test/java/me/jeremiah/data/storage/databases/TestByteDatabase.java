@@ -5,11 +5,17 @@ import me.jeremiah.data.TestData;
 import me.jeremiah.data.storage.DatabaseInfo;
 import me.jeremiah.data.storage.TestDatabaseObject;
 import me.jeremiah.data.storage.databases.byteoriented.Database;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestByteDatabase extends Database<TestDatabaseObject> {
 
@@ -21,6 +27,9 @@ public class TestByteDatabase extends Database<TestDatabaseObject> {
       HashMap::putAll
     );
 
+  private int savedEntryCount;
+  private int deletedEntryCount;
+
   public TestByteDatabase() {
     super(new DatabaseInfo(null, 0, null, null, null), TestDatabaseObject.class);
   }
@@ -46,6 +55,99 @@ public class TestByteDatabase extends Database<TestDatabaseObject> {
     close();
   }
 
+  @Test
+  @Order(3)
+  public void changedEntriesOnlySave() {
+    setup();
+    int changedCount = TestData.ENTRY_COUNT / 10;
+    TestData.TEST_OBJECTS.stream()
+      .limit(changedCount)
+      .forEach(testObject -> updateByIndex("id", testObject.getId(), entry -> {}));
+    save();
+    assert savedEntryCount == changedCount : "Only changed entries should be saved";
+    save();
+    assert savedEntryCount == changedCount : "Nothing should be saved without changes";
+    close();
+  }
+
+  @Test
+  @Order(4)
+  public void removedEntriesDelete() {
+    setup();
+    int removedCount = TestData.ENTRY_COUNT / 10;
+    TestData.TEST_OBJECTS.stream()
+      .limit(removedCount)
+      .forEach(testObject -> {
+        assert removeByIndex("id", testObject.getId()).isPresent() : "Failed to remove entry by ID";
+        assert getByIndex("id", testObject.getId()).isEmpty() : "Removed entry still indexed by ID";
+        assert getByIndex("name", testObject.getName()).isEmpty() : "Removed entry still indexed by name";
+      });
+    assert entries.size() == TestData.ENTRY_COUNT - removedCount : "Removed entries still stored";
+    for (int i = 0; i < TestData.ENTRY_COUNT - removedCount; i++)
+      assert entries.contains(getSorted("age", i).orElseThrow()) : "Removed entry still sorted";
+    save();
+    assert deletedEntryCount == removedCount : "Removed entries should be deleted";
+    assert savedEntryCount == 0 : "Removed entries should not be saved";
+    close();
+  }
+
+  @Test
+  @Order(5)
+  public void failedAutoSavesRetry() throws InterruptedException {
+    FlakyDatabase flaky = new FlakyDatabase();
+    flaky.setup();
+    flaky.add(new TestDatabaseObject(0));
+    assert flaky.saved.await(5, TimeUnit.SECONDS) : "Autosave should keep running after a failed save";
+    assert flaky.attempts.get() > FlakyDatabase.FAILURES : "Failed saves should be retried on later intervals";
+    flaky.close();
+  }
+
+  private static final class FlakyDatabase extends Database<TestDatabaseObject> {
+
+    private static final int FAILURES = 2;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CountDownLatch saved = new CountDownLatch(1);
+
+    private FlakyDatabase() {
+      super(flakyInfo(), TestDatabaseObject.class);
+    }
+
+    private static DatabaseInfo flakyInfo() {
+      DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+      info.setAutoSaveInterval(10);
+      info.setAutoSaveTimeUnit(TimeUnit.MILLISECONDS);
+      return info;
+    }
+
+    @Override
+    protected int lookupEntryCount() {
+      return 0;
+    }
+
+    @Override
+    protected Map<ByteTranslatable, ByteTranslatable> getData() {
+      return Map.of();
+    }
+
+    @Override
+    protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+      return Optional.empty();
+    }
+
+    @Override
+    protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+      if (attempts.incrementAndGet() <= FAILURES)
+        throw new IllegalStateException("Database is unavailable");
+      saved.countDown();
+    }
+
+    @Override
+    protected void deleteData(Collection<ByteTranslatable> ids) {
+    }
+
+  }
+
   @Override
   protected int lookupEntryCount() {
     return TestData.ENTRY_COUNT;
@@ -56,13 +158,25 @@ public class TestByteDatabase extends Database<TestDatabaseObject> {
     return fakeSavedEntries;
   }
 
+  @Override
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    return Optional.ofNullable(fakeSavedEntries.get(id));
+  }
+
   @Override
   protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
-    assert data.size() == fakeSavedEntries.size() : "Data size mismatch";
+    assert data.size() <= fakeSavedEntries.size() : "Data size mismatch";
+    savedEntryCount += data.size();
     for (Map.Entry<ByteTranslatable, ByteTranslatable> entry : data.entrySet()) {
       assert fakeSavedEntries.containsKey(entry.getKey()) : "Entry key not found in fake saved entries";
       //assert fakeSavedEntries.containsValue(entry.getValue()) : "Entry value not found in fake saved entries";
     }
   }
 
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> ids) {
+    assert fakeSavedEntries.keySet().containsAll(ids) : "Deleted key not found in fake saved entries";
+    deletedEntryCount += ids.size();
+  }
+
 }
@@ -0,0 +1,120 @@
+package me.jeremiah.data.storage.databases;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.TestData;
+import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.TestDatabaseObject;
+import me.jeremiah.data.storage.databases.byteoriented.Database;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class TestJournaledByteDatabase extends Database<TestDatabaseObject> {
+
+  private static final Path JOURNAL_DIRECTORY = createJournalDirectory();
+
+  private final Map<ByteTranslatable, ByteTranslatable> fakeSavedEntries = TestData.TEST_OBJECTS.stream()
+    .map(TestDatabaseObject::serialize)
+    .collect(
+      HashMap::new,
+      (map, entry) -> entry.putInto(map),
+      HashMap::putAll
+    );
+
+  private boolean failSaves;
+  private int savedEntryCount;
+  private int deletedEntryCount;
+
+  public TestJournaledByteDatabase() {
+    super(journaledInfo(), TestDatabaseObject.class);
+  }
+
+  private static DatabaseInfo journaledInfo() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+    info.setJournalDirectory(JOURNAL_DIRECTORY);
+    info.setJournalSegmentSize(64 * 1024);
+    return info;
+  }
+
+  private static Path createJournalDirectory() {
+    try {
+      return Files.createTempDirectory("journal");
+    } catch (IOException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  @Test
+  @Order(1)
+  public void unsavedChangesReplay() {
+    setup();
+    failSaves = true;
+    TestDatabaseObject removedObject = TestData.TEST_OBJECTS.iterator().next();
+    TestDatabaseObject addedObject = new TestDatabaseObject(TestData.ENTRY_COUNT);
+    assert removeByIndex("id", removedObject.getId()).isPresent() : "Failed to remove entry by ID";
+    add(addedObject);
+    TestData.TEST_OBJECTS.forEach(testObject -> updateByIndex("id", testObject.getId(), entry -> {}));
+    try {
+      close();
+      assert false : "Failing save should be rethrown";
+    } catch (RuntimeException ignored) {
+    }
+
+    TestJournaledByteDatabase restarted = new TestJournaledByteDatabase();
+    restarted.setup();
+    assert restarted.getByIndex("id", removedObject.getId()).isEmpty() : "Journaled removal was not replayed";
+    assert addedObject.equals(restarted.getByIndex("id", addedObject.getId()).orElseThrow()) : "Journaled addition was not replayed";
+    assert restarted.entries.size() == TestData.ENTRY_COUNT : "Replay should not duplicate entries";
+    restarted.close();
+    assert restarted.deletedEntryCount == 1 : "Replayed removal should be deleted";
+    assert restarted.savedEntryCount == TestData.ENTRY_COUNT : "Replayed changes should be saved";
+    assert journalSegmentCount() == 1 : "Journal should be truncated after a successful save";
+  }
+
+  private static long journalSegmentCount() {
+    try (Stream<Path> files = Files.list(JOURNAL_DIRECTORY)) {
+      return files.count();
+    } catch (IOException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  @Override
+  protected int lookupEntryCount() {
+    return TestData.ENTRY_COUNT;
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
+    return fakeSavedEntries;
+  }
+
+  @Override
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    return Optional.ofNullable(fakeSavedEntries.get(id));
+  }
+
+  @Override
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    if (failSaves)
+      throw new IllegalStateException("Simulated save failure");
+    savedEntryCount += data.size();
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> ids) {
+    if (failSaves)
+      throw new IllegalStateException("Simulated save failure");
+    deletedEntryCount += ids.size();
+  }
+
+}
@@ -0,0 +1,109 @@
+package me.jeremiah.data.storage.databases;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.TestData;
+import me.jeremiah.data.storage.CompleteTestDatabaseObject;
+import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.codecs.KryoEntryCodec;
+import me.jeremiah.data.storage.databases.objectoriented.Database;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class TestKryoObjectDatabase extends Database<CompleteTestDatabaseObject> {
+
+  private static final KryoEntryCodec CODEC = new KryoEntryCodec(CompleteTestDatabaseObject.class);
+
+  // Starts out in Java serialization, as rows saved before the codec was switched would be.
+  private final Map<ByteTranslatable, ByteTranslatable> fakeSavedEntries = TestData.COMPLETE_TEST_OBJECTS.stream()
+    .map(ByteTranslatable::fromSerializable)
+    .collect(HashMap::new, (map, bytes) -> map.put(bytes, bytes), HashMap::putAll);
+
+  private int savedEntryCount;
+  private int deletedEntryCount;
+
+  public TestKryoObjectDatabase() {
+    super(kryoInfo(), CompleteTestDatabaseObject.class);
+  }
+
+  private static DatabaseInfo kryoInfo() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+    info.setEntryCodec(CODEC);
+    return info;
+  }
+
+  @Test
+  @Order(1)
+  public void javaRowsMigrate() {
+    setup();
+    assert entries.size() == TestData.ENTRY_COUNT : "Java serialized rows should still load";
+    save();
+    assert savedEntryCount == TestData.ENTRY_COUNT : "Java serialized rows should be rewritten";
+    assert deletedEntryCount == TestData.ENTRY_COUNT : "Java serialized rows should be deleted after rewriting";
+    assert fakeSavedEntries.size() == TestData.ENTRY_COUNT : "Migration should replace rows one for one";
+    Collection<Object> migrated = new HashSet<>();
+    for (ByteTranslatable data : fakeSavedEntries.values()) {
+      assert !CODEC.isOutdated(data.asByteArray()) : "Row still in Java serialization";
+      migrated.add(CODEC.decode(data.asByteArray()));
+    }
+    assert TestData.COMPLETE_TEST_OBJECTS.equals(migrated) : "Migrated rows do not match";
+    close();
+  }
+
+  @Test
+  @Order(2)
+  public void kryoRowsLoad() {
+    fakeSavedEntries.clear();
+    for (CompleteTestDatabaseObject testObject : TestData.COMPLETE_TEST_OBJECTS) {
+      ByteTranslatable data = ByteTranslatable.fromByteArray(CODEC.encode(testObject));
+      fakeSavedEntries.put(data, data);
+    }
+    setup();
+    assert entries.size() == TestData.ENTRY_COUNT : "Kryo rows failed to load";
+    for (CompleteTestDatabaseObject testObject : TestData.COMPLETE_TEST_OBJECTS)
+      assert testObject.equals(getByIndex("id", testObject.getId()).orElseThrow()) : "Kryo row decoded to the wrong entry";
+    save();
+    assert savedEntryCount == 0 && deletedEntryCount == 0 : "Current rows should not be rewritten";
+    close();
+  }
+
+  @Test
+  @Order(3)
+  public void removedRowsDeleteByStoredKey() {
+    setup();
+    CompleteTestDatabaseObject removed = TestData.COMPLETE_TEST_OBJECTS.iterator().next();
+    assert removeByIndex("id", removed.getId()).isPresent() : "Failed to remove entry by ID";
+    save();
+    assert fakeSavedEntries.size() == TestData.ENTRY_COUNT - 1 : "Removed row should be deleted under the key it was loaded with";
+    assert fakeSavedEntries.values().stream().noneMatch(data -> removed.equals(CODEC.decode(data.asByteArray()))) : "Removed entry is still stored";
+    close();
+  }
+
+  @Override
+  protected int lookupEntryCount() {
+    return TestData.ENTRY_COUNT;
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
+    return fakeSavedEntries;
+  }
+
+  @Override
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    savedEntryCount += data.size();
+    fakeSavedEntries.putAll(data);
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> keys) {
+    assert fakeSavedEntries.keySet().containsAll(keys) : "Deleted entry not found in fake saved entries";
+    deletedEntryCount += keys.size();
+    fakeSavedEntries.keySet().removeAll(keys);
+  }
+
+}
@@ -0,0 +1,133 @@
+package me.jeremiah.data.storage.databases;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.TestData;
+import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.TestDatabaseObject;
+import me.jeremiah.data.storage.databases.byteoriented.Database;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestLazyByteDatabase extends Database<TestDatabaseObject> {
+
+  private static final int MAX_CACHED_ENTRIES = TestData.ENTRY_COUNT / 10;
+
+  private final Map<ByteTranslatable, ByteTranslatable> fakeSavedEntries = TestData.TEST_OBJECTS.stream()
+    .map(TestDatabaseObject::serialize)
+    .collect(
+      HashMap::new,
+      (map, entry) -> entry.putInto(map),
+      HashMap::putAll
+    );
+
+  private int loadedEntryCount;
+  private int savedEntryCount;
+  private final Set<ByteTranslatable> savedIds = ConcurrentHashMap.newKeySet();
+
+  public TestLazyByteDatabase() {
+    super(lazyInfo(), TestDatabaseObject.class);
+  }
+
+  private static DatabaseInfo lazyInfo() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+    info.setLazyLoading(true);
+    info.setMaxCachedEntries(MAX_CACHED_ENTRIES);
+    return info;
+  }
+
+  @Test
+  @Order(1)
+  public void lazyStartup() {
+    setup();
+    assert entries.isEmpty() : "Lazy startup should not load entries";
+    for (TestDatabaseObject testObject : TestData.TEST_OBJECTS)
+      assert testObject.equals(getByIndex("id", testObject.getId()).orElseThrow()) : "Failed to load entry by ID";
+    assert loadedEntryCount == TestData.ENTRY_COUNT : "Every entry should be loaded once";
+    // Trims the cache before the name lookups, so a queued background eviction has nothing left to drop.
+    evictColdEntries();
+    for (TestDatabaseObject testObject : TestData.TEST_OBJECTS)
+      if (entries.contains(testObject))
+        assert getByIndex("name", testObject.getName()).isPresent() : "Cached entry not indexed by name";
+    close();
+  }
+
+  @Test
+  @Order(2)
+  public void cachedEntriesLoadOnce() {
+    setup();
+    TestDatabaseObject testObject = TestData.TEST_OBJECTS.iterator().next();
+    assert getByIndex("name", testObject.getName()).isEmpty() : "Only the primary index should miss through";
+    getByIndex("id", testObject.getId());
+    getByIndex("id", testObject.getId());
+    assert loadedEntryCount == 1 : "Cached entry should not be loaded again";
+    assert getByIndex("name", testObject.getName()).isPresent() : "Loaded entry not indexed by name";
+    close();
+  }
+
+  @Test
+  @Order(3)
+  public void coldEntriesEvict() {
+    setup();
+    TestData.TEST_OBJECTS.forEach(testObject -> getByIndex("id", testObject.getId()));
+    evictColdEntries();
+    assert entries.size() <= MAX_CACHED_ENTRIES : "Cold entries should be evicted";
+    assert savedEntryCount == TestData.ENTRY_COUNT - entries.size() : "Dirty entries should be saved before eviction";
+    close();
+  }
+
+  @Test
+  @Order(4)
+  public void updatesSurviveEviction() {
+    setup();
+    Iterator<TestDatabaseObject> testObjects = TestData.TEST_OBJECTS.iterator();
+    TestDatabaseObject updated = testObjects.next();
+    updateByIndex("id", updated.getId(), entry -> {
+      // Turns the entry cold while its update runs and evicts, as an eviction running alongside the update would.
+      for (int i = 0; i < MAX_CACHED_ENTRIES; i++)
+        getByIndex("id", testObjects.next().getId());
+      evictColdEntries();
+      savedIds.clear();
+    }).orElseThrow();
+    save();
+    assert savedIds.contains(ByteTranslatable.fromUUID(updated.getId())) : "Update made during an eviction was dropped";
+    close();
+  }
+
+  @Override
+  protected int lookupEntryCount() {
+    return TestData.ENTRY_COUNT;
+  }
+
+  @Override
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
+    throw new UnsupportedOperationException("Lazy databases should not load every entry");
+  }
+
+  @Override
+  protected Optional<ByteTranslatable> getData(@NotNull ByteTranslatable id) {
+    loadedEntryCount++;
+    return Optional.ofNullable(fakeSavedEntries.get(id));
+  }
+
+  @Override
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    savedEntryCount += data.size();
+    savedIds.addAll(data.keySet());
+    assert fakeSavedEntries.keySet().containsAll(data.keySet()) : "Entry key not found in fake saved entries";
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> ids) {
+    assert fakeSavedEntries.keySet().containsAll(ids) : "Deleted key not found in fake saved entries";
+  }
+
+}
@@ -0,0 +1,111 @@
+package me.jeremiah.data.storage.databases;
+
+import me.jeremiah.data.TestData;
+import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.TestDatabaseObject;
+import me.jeremiah.data.storage.databases.byteoriented.LogStructured;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class TestLogStructuredDatabase {
+
+  private static final String NAME = "build/test-log-structured";
+
+  private static LogStructured<TestDatabaseObject> open() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, NAME, null, null);
+    info.setLogSegmentSize(64 * 1024);
+    return new LogStructured<>(info, TestDatabaseObject.class);
+  }
+
+  @Test
+  @Order(1)
+  public void savedEntriesReload() {
+    deleteLog();
+    LogStructured<TestDatabaseObject> database = open();
+    assert database.getEntries().isEmpty() : "New log should be empty";
+    TestData.TEST_OBJECTS.forEach(database::add);
+    database.close();
+
+    LogStructured<TestDatabaseObject> reopened = open();
+    assert reopened.getEntries().size() == TestData.ENTRY_COUNT : "Reloaded entry count mismatch";
+    for (TestDatabaseObject testObject : TestData.TEST_OBJECTS)
+      assert testObject.equals(reopened.getByIndex("id", testObject.getId()).orElseThrow()) : "Failed to reload entry by ID";
+    reopened.close();
+  }
+
+  @Test
+  @Order(2)
+  public void removedEntriesStayRemoved() {
+    deleteLog();
+    LogStructured<TestDatabaseObject> database = open();
+    TestData.TEST_OBJECTS.forEach(database::add);
+    database.close();
+
+    LogStructured<TestDatabaseObject> reopened = open();
+    int removedCount = TestData.ENTRY_COUNT / 10;
+    TestData.TEST_OBJECTS.stream()
+      .limit(removedCount)
+      .forEach(testObject -> reopened.removeByIndex("id", testObject.getId()));
+    TestData.TEST_OBJECTS.stream()
+      .skip(removedCount)
+      .forEach(testObject -> reopened.updateByIndex("id", testObject.getId(), entry -> {}));
+    reopened.close();
+
+    LogStructured<TestDatabaseObject> restarted = open();
+    assert restarted.getEntries().size() == TestData.ENTRY_COUNT - removedCount : "Removed entries were reloaded";
+    TestData.TEST_OBJECTS.stream()
+      .limit(removedCount)
+      .forEach(testObject -> {
+        assert restarted.getByIndex("id", testObject.getId()).isEmpty() : "Removed entry was reloaded";
+      });
+    restarted.close();
+    deleteLog();
+  }
+
+  @Test
+  @Order(3)
+  public void removalsCompactAway() throws IOException {
+    deleteLog();
+    LogStructured<TestDatabaseObject> database = open();
+    TestData.TEST_OBJECTS.forEach(database::add);
+    database.close();
+
+    LogStructured<TestDatabaseObject> reopened = open();
+    TestData.TEST_OBJECTS.forEach(testObject -> reopened.removeByIndex("id", testObject.getId()));
+    reopened.close();
+
+    // The first pass drops the removed puts, the second deletes their files and the tombstones left with nothing to
+    // hide, and the third deletes the tombstone segments.
+    LogStructured<TestDatabaseObject> compacted = open();
+    for (int pass = 0; pass < 3; pass++)
+      compacted.compact();
+    try (Stream<Path> files = Files.list(Path.of("./%s.log".formatted(NAME)))) {
+      assert files.count() == 1 : "Compaction left segments holding only removed entries";
+    }
+    compacted.close();
+
+    LogStructured<TestDatabaseObject> restarted = open();
+    assert restarted.getEntries().isEmpty() : "Removed entries were reloaded after compaction";
+    restarted.close();
+    deleteLog();
+  }
+
+  private static void deleteLog() {
+    Path directory = Path.of("./%s.log".formatted(NAME));
+    if (!Files.exists(directory))
+      return;
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+        Files.delete(file);
+    } catch (IOException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+}
@@ -9,13 +9,17 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
 public class TestObjectDatabase extends Database<CompleteTestDatabaseObject> {
 
-  private final Collection<ByteTranslatable> fakeSavedEntries = TestData.COMPLETE_TEST_OBJECTS.stream()
+  private final Map<ByteTranslatable, ByteTranslatable> fakeSavedEntries = TestData.COMPLETE_TEST_OBJECTS.stream()
     .map(ByteTranslatable::fromSerializable)
-    .collect(Collectors.toUnmodifiableSet());
+    .collect(HashMap::new, (map, bytes) -> map.put(bytes, bytes), HashMap::putAll);
+
+  private int savedEntryCount;
+  private int deletedEntryCount;
 
   public TestObjectDatabase() {
     super(new DatabaseInfo(null, 0, null, null, null), CompleteTestDatabaseObject.class);
@@ -42,20 +46,103 @@ public class TestObjectDatabase extends Database<CompleteTestDatabaseObject> {
     close();
   }
 
+  @Test
+  @Order(3)
+  public void changedEntriesOnlySave() {
+    setup();
+    int changedCount = TestData.ENTRY_COUNT / 10;
+    TestData.COMPLETE_TEST_OBJECTS.stream()
+      .limit(changedCount)
+      .forEach(testObject -> updateByIndex("id", testObject.getId(), entry -> {}));
+    save();
+    assert savedEntryCount == changedCount : "Only changed entries should be saved";
+    save();
+    assert savedEntryCount == changedCount : "Nothing should be saved without changes";
+    close();
+  }
+
+  @Test
+  @Order(4)
+  public void removedEntriesDelete() {
+    setup();
+    int removedCount = TestData.ENTRY_COUNT / 10;
+    TestData.COMPLETE_TEST_OBJECTS.stream()
+      .limit(removedCount)
+      .forEach(testObject -> {
+        assert removeByIndex("id", testObject.getId()).isPresent() : "Failed to remove entry by ID";
+        assert getByIndex("id", testObject.getId()).isEmpty() : "Removed entry still indexed by ID";
+        assert getByIndex("name", testObject.getName()).isEmpty() : "Removed entry still indexed by name";
+      });
+    assert entries.size() == TestData.ENTRY_COUNT - removedCount : "Removed entries still stored";
+    for (int i = 0; i < TestData.ENTRY_COUNT - removedCount; i++)
+      assert entries.contains(getSorted("age", i).orElseThrow()) : "Removed entry still sorted";
+    save();
+    assert deletedEntryCount == removedCount : "Removed entries should be deleted";
+    assert savedEntryCount == 0 : "Removed entries should not be saved";
+    close();
+  }
+
+  @Test
+  @Order(5)
+  public void lazyLoadingNeedsEntryLookups() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+    info.setLazyLoading(true);
+    EncodingKeyedDatabase lazy = new EncodingKeyedDatabase(info);
+    try {
+      lazy.setup();
+      assert false : "Lazy loading should be refused by a table keyed by entry encoding";
+    } catch (UnsupportedOperationException expected) {
+      // Refused at setup instead of on the first cache miss.
+    }
+  }
+
+  private static final class EncodingKeyedDatabase extends Database<CompleteTestDatabaseObject> {
+
+    private EncodingKeyedDatabase(DatabaseInfo info) {
+      super(info, CompleteTestDatabaseObject.class);
+    }
+
+    @Override
+    protected int lookupEntryCount() {
+      return 0;
+    }
+
+    @Override
+    protected Map<ByteTranslatable, ByteTranslatable> getData() {
+      return Map.of();
+    }
+
+    @Override
+    protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    }
+
+    @Override
+    protected void deleteData(Collection<ByteTranslatable> keys) {
+    }
+
+  }
+
   @Override
   protected int lookupEntryCount() {
     return TestData.ENTRY_COUNT;
   }
 
   @Override
-  protected Collection<ByteTranslatable> getData() {
+  protected Map<ByteTranslatable, ByteTranslatable> getData() {
     return fakeSavedEntries;
   }
 
   @Override
-  protected void saveData(Collection<ByteTranslatable> data) {
-    assert data.size() == fakeSavedEntries.size() : "Data size mismatch";
-    assert fakeSavedEntries.containsAll(data) : "Entry not found in fake saved entries";
+  protected void saveData(Map<ByteTranslatable, ByteTranslatable> data) {
+    assert data.size() <= fakeSavedEntries.size() : "Data size mismatch";
+    savedEntryCount += data.size();
+    assert fakeSavedEntries.keySet().containsAll(data.keySet()) : "Entry not found in fake saved entries";
+  }
+
+  @Override
+  protected void deleteData(Collection<ByteTranslatable> keys) {
+    assert fakeSavedEntries.keySet().containsAll(keys) : "Deleted entry not found in fake saved entries";
+    deletedEntryCount += keys.size();
   }
 
 }
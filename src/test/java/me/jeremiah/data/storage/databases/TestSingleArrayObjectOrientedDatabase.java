@@ -3,35 +3,45 @@ package me.jeremiah.data.storage.databases;
 import me.jeremiah.data.TestData;
 import me.jeremiah.data.storage.CompleteTestDatabaseObject;
 import me.jeremiah.data.storage.DatabaseInfo;
+import me.jeremiah.data.storage.codecs.JavaEntryCodec;
+import me.jeremiah.data.storage.databases.singlearrayobjectoriented.ChunkedEntryStream;
 import me.jeremiah.data.storage.databases.singlearrayobjectoriented.Database;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
+import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TestSingleArrayObjectOrientedDatabase extends Database<CompleteTestDatabaseObject> {
 
-  private final byte[] fakeSavedEntries;
+  private static final int CHUNK_SIZE = 256;
+
+  private byte[] fakeSavedEntries;
+  private int saveCount;
 
   {
-    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-         ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
-      for (CompleteTestDatabaseObject testObject : TestData.COMPLETE_TEST_OBJECTS)
-        objectStream.writeObject(testObject);
-      objectStream.flush();
+    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream()) {
+      ChunkedEntryStream.write(byteStream, TestData.COMPLETE_TEST_OBJECTS, new JavaEntryCodec(), CHUNK_SIZE, 4, 4);
       fakeSavedEntries = byteStream.toByteArray();
-    } catch (Exception e) {
+    } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
   public TestSingleArrayObjectOrientedDatabase() {
-    super(new DatabaseInfo(null, 0, null, null, null), CompleteTestDatabaseObject.class);
+    super(chunkedInfo(), CompleteTestDatabaseObject.class);
+  }
+
+  private static DatabaseInfo chunkedInfo() {
+    DatabaseInfo info = new DatabaseInfo(null, 0, null, null, null);
+    info.setChunkSize(CHUNK_SIZE);
+    return info;
   }
 
   @Test
@@ -55,6 +65,40 @@ public class TestSingleArrayObjectOrientedDatabase extends Database<CompleteTest
     close();
   }
 
+  @Test
+  @Order(3)
+  public void changedEntriesTriggerSave() {
+    setup();
+    save();
+    assert saveCount == 0 : "Nothing should be saved without changes";
+    CompleteTestDatabaseObject testObject = TestData.COMPLETE_TEST_OBJECTS.iterator().next();
+    updateByIndex("id", testObject.getId(), entry -> {});
+    save();
+    assert saveCount == 1 : "A change should save the whole array";
+    close();
+  }
+
+  @Test
+  @Order(4)
+  public void unchunkedArrayMigrates() {
+    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+         ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
+      for (CompleteTestDatabaseObject testObject : TestData.COMPLETE_TEST_OBJECTS)
+        objectStream.writeObject(testObject);
+      objectStream.flush();
+      fakeSavedEntries = byteStream.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    setup();
+    assert TestData.ENTRY_COUNT == entries.size() : "Unchunked array failed to load";
+    save();
+    assert saveCount == 1 : "Unchunked array should be rewritten without changes";
+    save();
+    assert saveCount == 1 : "Rewritten array should not be saved again";
+    close();
+  }
+
   @Override
   protected int lookupEntryCount() {
     return TestData.ENTRY_COUNT;
@@ -67,17 +111,18 @@ public class TestSingleArrayObjectOrientedDatabase extends Database<CompleteTest
 
   @Override
   protected void saveData(byte[] data) {
-    assert data.length == fakeSavedEntries.length : "Data size mismatch";
-
-    Collection<CompleteTestDatabaseObject> realObjects = new HashSet<>(TestData.ENTRY_COUNT + 1, 1);
+    saveCount++;
 
-    try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
-      for (int i = 0; i < TestData.ENTRY_COUNT; i++)
-        realObjects.add((CompleteTestDatabaseObject) inputStream.readObject());
-    } catch (Exception e) {
+    Set<Object> realObjects = ConcurrentHashMap.newKeySet(TestData.ENTRY_COUNT);
+    try {
+      boolean outdated = ChunkedEntryStream.read(new ByteArrayInputStream(data), new JavaEntryCodec(), 4, 4, realObjects::add);
+      assert !outdated : "Saved array should use the chunked layout";
+    } catch (IOException e) {
       throw new RuntimeException(e);
     }
-    assert TestData.COMPLETE_TEST_OBJECTS.equals(realObjects) : "Data mismatch";
+    Collection<CompleteTestDatabaseObject> expected = new HashSet<>(TestData.COMPLETE_TEST_OBJECTS);
+    assert expected.equals(realObjects) : "Data mismatch";
+    fakeSavedEntries = data;
   }
 
 }
@@ -0,0 +1,317 @@
+package me.jeremiah.data.storage.databases.components.indexing;
+
+import me.jeremiah.data.ByteTranslatable;
+import me.jeremiah.data.storage.CompositeIndexable;
+import me.jeremiah.data.storage.Indexable;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+public class TestIndexedDatabaseComponent {
+
+  private static final int ENTRY_COUNT = 1_000;
+  private static final int FACTION_COUNT = 10;
+  private static final World OVERWORLD = world("world");
+  private static final World NETHER = world("world_nether");
+
+  @CompositeIndexable(id = "owner_slot", fields = {"owner", "slot"})
+  @CompositeIndexable(id = "faction_owner", fields = {"faction", "owner"}, unique = false)
+  private static final class Account {
+
+    @Indexable(id = "id", primary = true)
+    private final UUID id;
+    @Indexable(id = "name", searchable = true)
+    private String name;
+    @Indexable(id = "number")
+    private final long number;
+    @Indexable(id = "slot")
+    private final int slot;
+    @Indexable(id = "faction", unique = false)
+    private String faction;
+    private final String owner;
+    @Indexable(id = "home")
+    private Location home;
+
+    private Account(int i) {
+      this.id = new UUID(i, i);
+      this.name = "Account_" + i;
+      this.number = i * 1_000_003L;
+      this.slot = -i;
+      this.faction = "Faction_" + i % FACTION_COUNT;
+      this.owner = "Owner_" + i / 2;
+      this.home = new Location(i % 2 == 0 ? OVERWORLD : NETHER, i, 64, -i);
+    }
+
+  }
+
+  @Test
+  public void renamedEntriesAreRekeyed() {
+    withComponent((component, accounts) -> {
+      accounts.forEach(account -> {
+        account.name = account.name + "_renamed";
+        component.refresh(account);
+      });
+      for (int i = 0; i < ENTRY_COUNT; i++) {
+        Account account = accounts.get(i);
+        assert component.getByIndex("name", account.name).orElseThrow() == account : "Renamed entry not found by its new key";
+        assert component.getByIndex("name", "Account_" + i).isEmpty() : "Renamed entry still found by its old key";
+        assert component.getByIndex("id", account.id).orElseThrow() == account : "Final index lost the entry";
+      }
+    });
+  }
+
+  @Test
+  public void removalUsesCurrentKeys() {
+    withComponent((component, accounts) -> {
+      Account account = accounts.getFirst();
+      account.name = "Renamed";
+      component.refresh(account);
+      component.remove(account);
+      assert component.getByIndex("name", "Renamed").isEmpty() : "Removed entry still found by its new key";
+      assert component.getByIndex("id", account.id).isEmpty() : "Removed entry still found by id";
+    });
+  }
+
+  @Test
+  public void refreshRacingRemovalDoesNotRestore() {
+    withComponent((component, accounts) -> {
+      Account account = accounts.get(1);
+      account.name = "Renamed";
+      Object keys = keysOf(component, account);
+      Thread refresher = new Thread(() -> component.refresh(account));
+      // Holds the entry's keys so the refresh reads them and then waits while the removal runs.
+      synchronized (keys) {
+        refresher.start();
+        while (refresher.getState() != Thread.State.BLOCKED)
+          Thread.onSpinWait();
+        component.remove(account);
+      }
+      try {
+        refresher.join();
+      } catch (InterruptedException exception) {
+        throw new RuntimeException(exception);
+      }
+      assert component.getByIndex("name", "Renamed").isEmpty() : "Refresh filed a removed entry under its new key";
+      assert component.getByIndex("id", account.id).isEmpty() : "Removed entry still found by id";
+    });
+  }
+
+  @Test
+  public void updateRekeysUnrefreshedEntries() {
+    withComponent((component, accounts) -> {
+      Account account = accounts.getLast();
+      account.name = "Renamed";
+      component.update();
+      assert component.getByIndex("name", "Renamed").orElseThrow() == account : "Update did not re-key the entry";
+    });
+  }
+
+  @Test
+  public void typedKeysSurviveRemovals() {
+    withComponent((component, accounts) -> {
+      for (int i = 1; i < ENTRY_COUNT; i += 2)
+        component.remove(accounts.get(i));
+      for (int i = 0; i < ENTRY_COUNT; i++) {
+        Account account = accounts.get(i);
+        Account expected = i % 2 == 0 ? account : null;
+        assert component.getByIndex("id", account.id).orElse(null) == expected : "UUID index is wrong for " + i;
+        assert component.getByIndex("name", account.name).orElse(null) == expected : "String index is wrong for " + i;
+        assert component.getByIndex("number", account.number).orElse(null) == expected : "Long index is wrong for " + i;
+        assert component.getByIndex("slot", account.slot).orElse(null) == expected : "Int index is wrong for " + i;
+        assert component.getByPrimaryKey(ByteTranslatable.fromUUID(account.id)).orElse(null) == expected : "Primary key lookup is wrong for " + i;
+      }
+      assert component.getByIndex("number", (int) accounts.getFirst().number).isEmpty() : "Int key matched a long index";
+    });
+  }
+
+  @Test
+  public void nonUniqueIndexesKeepEveryEntry() {
+    withComponent((component, accounts) -> {
+      for (int faction = 0; faction < FACTION_COUNT; faction++) {
+        int expected = faction;
+        List<Account> members = component.getAllByIndex("faction", "Faction_" + faction);
+        assert members.size() == ENTRY_COUNT / FACTION_COUNT : "Faction has the wrong number of members";
+        assert members.stream().allMatch(account -> account.slot % FACTION_COUNT == -expected) : "Faction has a wrong member";
+        assert component.countByIndex("faction", "Faction_" + faction) == members.size() : "Count does not match the members";
+      }
+
+      Account deserter = accounts.getFirst();
+      deserter.faction = "Faction_1";
+      component.refresh(deserter);
+      assert component.countByIndex("faction", "Faction_0") == ENTRY_COUNT / FACTION_COUNT - 1 : "Deserter was not removed from its old faction";
+      assert component.getAllByIndex("faction", "Faction_1").contains(deserter) : "Deserter was not added to its new faction";
+
+      component.remove(deserter);
+      assert !component.getAllByIndex("faction", "Faction_1").contains(deserter) : "Removed entry is still a member";
+      assert component.getAllByIndex("faction", "Faction_none").isEmpty() : "Unknown faction has members";
+      assert component.countByIndex("id", accounts.getLast().id) == 1 : "Unique index count is wrong";
+    });
+  }
+
+  @Test
+  public void sharedKeysSurviveRemovals() {
+    withComponent((component, accounts) -> {
+      List<Account> faction = component.getAllByIndex("faction", "Faction_3");
+      for (int i = 0; i < faction.size(); i += 2)
+        component.remove(faction.get(i));
+      List<Account> remaining = component.getAllByIndex("faction", "Faction_3");
+      assert remaining.size() == faction.size() / 2 : "Shared key kept the wrong number of members";
+      for (int i = 0; i < faction.size(); i++)
+        assert remaining.contains(faction.get(i)) == (i % 2 == 1) : "Shared key lost or kept the wrong member";
+
+      remaining.forEach(component::remove);
+      assert component.countByIndex("faction", "Faction_3") == 0 : "Emptied key still counts members";
+      remaining.forEach(component::add);
+      assert component.getAllByIndex("faction", "Faction_3").size() == remaining.size() : "Emptied key did not refill";
+    });
+  }
+
+  @Test
+  public void compositeIndexesKeyOnEveryComponent() {
+    withComponent((component, accounts) -> {
+      for (Account account : accounts)
+        assert component.getByIndex("owner_slot", new Object[] {account.owner, account.slot}).orElseThrow() == account : "Composite lookup is wrong";
+      assert component.getByIndex("owner_slot", new Object[] {"Owner_0", -2}).isEmpty() : "Composite matched another owner's slot";
+      assert component.getByIndex("owner_slot", new Object[] {"Owner_", "0"}).isEmpty() : "Composite matched a shifted split";
+      assert component.countByIndex("faction_owner", new Object[] {"Faction_0", "Owner_0"}) == 1 : "Non-unique composite count is wrong";
+
+      Account account = accounts.get(3);
+      account.faction = "Faction_0";
+      component.refresh(account);
+      assert component.getAllByIndex("faction_owner", new Object[] {"Faction_0", "Owner_1"}).contains(account) : "Composite was not re-keyed";
+    });
+  }
+
+  @Test
+  public void searchableIndexesMatchPrefixesAndCase() {
+    withComponent((component, accounts) -> {
+      List<Account> found = component.findByPrefix("name", "account_99", 100);
+      assert found.size() == 11 : "Prefix found the wrong number of entries";
+      assert found.stream().allMatch(account -> account.name.startsWith("Account_99")) : "Prefix found a wrong entry";
+      assert component.findByPrefix("name", "ACCOUNT_", 5).size() == 5 : "Prefix ignored the limit";
+      assert component.findByPrefix("name", "Nobody", 5).isEmpty() : "Prefix matched nothing";
+      assert component.findByPrefix("name", "account_", 0).isEmpty() : "Prefix ignored a zero limit";
+      try {
+        component.findByPrefix("name", "account_", -1);
+        assert false : "Negative limit was accepted";
+      } catch (IllegalArgumentException expected) {
+        // Rejected up front rather than by the result list's constructor.
+      }
+
+      Account account = accounts.get(42);
+      assert component.getByIndexIgnoreCase("name", "aCcOuNt_42").orElseThrow() == account : "Case-insensitive lookup failed";
+      assert component.getByIndex("name", "account_42").isEmpty() : "Exact lookup ignored case";
+
+      account.name = "Renamed";
+      component.refresh(account);
+      assert component.getByIndexIgnoreCase("name", "account_42").isEmpty() : "Old name is still searchable";
+      assert component.findByPrefix("name", "ren", 5).equals(List.of(account)) : "New name is not searchable";
+    });
+  }
+
+  @Test
+  public void spatialIndexesFindNearbyEntries() {
+    withComponent((component, accounts) -> {
+      Location center = new Location(OVERWORLD, 100, 64, -100);
+      List<Account> nearby = component.withinRadius("home", center, 10);
+      assert nearby.size() == 7 : "Radius found the wrong number of entries";
+      assert nearby.stream().allMatch(account -> account.home.getWorld() == OVERWORLD && account.home.distanceSquared(center) <= 100) : "Radius found a wrong entry";
+      assert component.withinRadius("home", center, 100_000).size() == ENTRY_COUNT / 2 : "Large radius missed entries";
+
+      List<Account> chunk = component.inChunk("home", NETHER, 0, -1);
+      assert chunk.size() == 8 : "Chunk found the wrong number of entries";
+      assert chunk.stream().allMatch(account -> account.home.getWorld() == NETHER && account.home.getX() < 16) : "Chunk found a wrong entry";
+
+      Account mover = accounts.get(100);
+      Location home = mover.home;
+      component.remove(mover);
+      assert !component.withinRadius("home", home, 1).contains(mover) : "Removed entry is still nearby";
+      assert component.getByIndex("home", home).isEmpty() : "Removed entry still found by exact location";
+    });
+  }
+
+  @Test
+  public void spatialIndexesFollowMoves() {
+    withComponent((component, accounts) -> {
+      Account mover = accounts.get(100);
+      Location start = mover.home;
+
+      Location step = new Location(OVERWORLD, 101, 64, -100);
+      moveTo(component, mover, step);
+      assert component.withinRadius("home", step, 0.5).equals(List.of(mover)) : "Entry moved within its chunk is not nearby";
+      assert component.inChunk("home", OVERWORLD, 6, -7).contains(mover) : "Entry moved within its chunk left it";
+      assert component.getByIndex("home", step).orElseThrow() == mover : "Moved entry not found by its new location";
+      assert component.getByIndex("home", start).isEmpty() : "Moved entry still found by its old location";
+
+      Location turned = new Location(OVERWORLD, 101, 64, -100, 90, 0);
+      moveTo(component, mover, turned);
+      assert component.withinRadius("home", turned, 0.5).equals(List.of(mover)) : "Turned entry is not nearby";
+      assert component.inChunk("home", OVERWORLD, 6, -7).contains(mover) : "Turned entry left its chunk";
+
+      Location far = new Location(OVERWORLD, 5000, 64, -5000);
+      moveTo(component, mover, far);
+      assert !component.inChunk("home", OVERWORLD, 6, -7).contains(mover) : "Entry moved across chunks is still in the old one";
+      assert component.inChunk("home", OVERWORLD, 312, -313).equals(List.of(mover)) : "Entry moved across chunks is not in the new one";
+
+      // Locations without a world are only indexed exactly.
+      Location nowhere = new Location(null, 5000, 64, -5000);
+      moveTo(component, mover, nowhere);
+      assert component.getByIndex("home", new Location(null, 5000, 64, -5000)).orElseThrow() == mover : "Worldless location not found exactly";
+      assert component.inChunk("home", OVERWORLD, 312, -313).isEmpty() : "Worldless entry is still in its old chunk";
+      component.remove(mover);
+      assert component.getByIndex("home", nowhere).isEmpty() : "Removed worldless entry is still found";
+    });
+  }
+
+  private static Object keysOf(IndexedDatabaseComponent<Account> component, Account account) {
+    try {
+      Field entryToKeys = IndexedDatabaseComponent.class.getDeclaredField("entryToKeys");
+      entryToKeys.setAccessible(true);
+      return ((Map<?, ?>) entryToKeys.get(component)).get(account);
+    } catch (ReflectiveOperationException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  private static void moveTo(IndexedDatabaseComponent<Account> component, Account account, Location home) {
+    account.home = home;
+    component.refresh(account);
+  }
+
+  // Only the world's identity is needed, so a proxy stands in for a running server.
+  private static World world(String name) {
+    UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+    return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "getUID" -> id;
+      case "getName", "toString" -> name;
+      case "hashCode" -> id.hashCode();
+      case "equals" -> proxy == args[0];
+      default -> throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  private static void withComponent(BiConsumer<IndexedDatabaseComponent<Account>, List<Account>> test) {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    IndexedDatabaseComponent<Account> component = new IndexedDatabaseComponent<>(scheduler, Account.class);
+    try {
+      component.setup(ENTRY_COUNT * 2);
+      List<Account> accounts = IntStream.range(0, ENTRY_COUNT).mapToObj(Account::new).toList();
+      accounts.forEach(component::add);
+      test.accept(component, accounts);
+    } finally {
+      component.close();
+      scheduler.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,271 @@
+package me.jeremiah.data.storage.databases.components.sorting;
+
+import me.jeremiah.data.storage.Sorted;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
+
+public class TestSortedDatabaseComponent {
+
+  private static final int ENTRY_COUNT = 10_000;
+
+  private static final class Score {
+
+    @Sorted("points")
+    private long points;
+
+    private Score(long points) {
+      this.points = points;
+    }
+
+  }
+
+  private static final class Leader {
+
+    private static final int TOP = 10;
+
+    @Sorted(value = "points", topK = TOP)
+    private long points;
+
+    private Leader(long points) {
+      this.points = points;
+    }
+
+  }
+
+  private static final class Reading {
+
+    @Sorted("level")
+    private int level;
+    @Sorted("ratio")
+    private float ratio;
+    @Sorted("boxed")
+    private Integer boxed;
+
+    private Reading(int i) {
+      this.level = i % 100;
+      this.ratio = (i * 7919 % ENTRY_COUNT) / 3f;
+      this.boxed = i % 10 == 0 ? null : i % 1000;
+    }
+
+  }
+
+  @Test
+  public void entriesStaySorted() {
+    withComponent((component, scores) -> {
+      assertSorted(component);
+      scores.stream().limit(ENTRY_COUNT / 10).forEach(score -> {
+        score.points = (score.points * 7919) % ENTRY_COUNT;
+        component.refresh(score);
+      });
+      assertSorted(component);
+      scores.stream().skip(ENTRY_COUNT / 2).forEach(component::remove);
+      assertSorted(component);
+      assert component.getSorted("points", ENTRY_COUNT / 2).isEmpty() : "Removed entries are still ranked";
+    });
+  }
+
+  @Test
+  public void changedEntryMovesToItsRank() {
+    withComponent((component, scores) -> {
+      Score lowest = component.getSorted("points", ENTRY_COUNT - 1).orElseThrow();
+      lowest.points = Long.MAX_VALUE;
+      component.refresh(lowest);
+      assert component.getSorted("points", 0).orElseThrow() == lowest : "Changed entry was not moved to the top";
+    });
+  }
+
+  @Test
+  public void ranksAndRangesMatchPositions() {
+    withComponent((component, scores) -> {
+      for (Score score : scores) {
+        int rank = component.rankOf("points", score).orElseThrow();
+        assert component.getSorted("points", rank).orElseThrow() == score : "Rank does not point back to the entry";
+      }
+
+      List<Score> page = component.getSortedRange("points", 10, 20);
+      assert page.size() == 10 : "Page has the wrong size";
+      for (int i = 0; i < page.size(); i++)
+        assert page.get(i) == component.getSorted("points", 10 + i).orElseThrow() : "Page is out of order";
+      assert component.getSortedRange("points", ENTRY_COUNT - 5, ENTRY_COUNT + 5).size() == 5 : "Page past the end was not clipped";
+
+      List<Score> range = component.rangeByValue("points", 100L, 199L);
+      assert range.size() == 100 : "Value range has the wrong size";
+      assert range.getFirst().points == 199 && range.getLast().points == 100 : "Value range is out of order";
+      assert component.countAbove("points", 100L) == ENTRY_COUNT - 101 : "Count above is wrong";
+      assert component.countAbove("points", (long) ENTRY_COUNT) == 0 : "Count above the maximum is not zero";
+
+      Score removed = scores.getFirst();
+      component.remove(removed);
+      assert component.rankOf("points", removed).isEmpty() : "Removed entry still has a rank";
+    });
+  }
+
+  @Test
+  public void rebuildResortsUnrefreshedEntries() {
+    withComponent((component, scores) -> {
+      scores.forEach(score -> score.points = (score.points * 7919) % ENTRY_COUNT);
+      component.update();
+      assertSorted(component);
+      for (Score score : scores)
+        assert component.getSorted("points", component.rankOf("points", score).orElseThrow()).orElseThrow() == score : "Rebuilt rank does not point back to the entry";
+    });
+  }
+
+  @Test
+  public void rebuildSortsEveryKeyType() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    List<Reading> readings = IntStream.range(0, ENTRY_COUNT).mapToObj(Reading::new).toList();
+    SortedDatabaseComponent<Reading> component = new SortedDatabaseComponent<>(scheduler, Reading.class, () -> readings);
+    try {
+      component.setup(ENTRY_COUNT * 2);
+      component.update();
+      for (int rank = 1; rank < ENTRY_COUNT; rank++) {
+        Reading higher = component.getSorted("level", rank - 1).orElseThrow();
+        Reading lower = component.getSorted("level", rank).orElseThrow();
+        assert higher.level >= lower.level : "Int keys are out of order at rank " + rank;
+        assert component.getSorted("ratio", rank - 1).orElseThrow().ratio >= component.getSorted("ratio", rank).orElseThrow().ratio : "Float keys are out of order at rank " + rank;
+      }
+      assert component.getSorted("boxed", ENTRY_COUNT / 10 - 1).orElseThrow().boxed == null : "Null keys should rank first";
+      assert component.getSorted("boxed", ENTRY_COUNT / 10).orElseThrow().boxed == 999 : "Boxed keys are out of order";
+
+      // Rebuilt nodes hold their keys boxed as the field's own type, so refreshed values still compare against them.
+      for (Reading reading : readings)
+        assert component.getSorted("level", component.rankOf("level", reading).orElseThrow()).orElseThrow() == reading : "Rebuilt rank does not point back to the entry";
+      Reading raised = readings.getLast();
+      raised.level = 100;
+      raised.ratio = ENTRY_COUNT;
+      component.refresh(raised);
+      assert component.getSorted("level", 0).orElseThrow() == raised : "Raised int key did not move to the top";
+      assert component.getSorted("ratio", 0).orElseThrow() == raised : "Raised float key did not move to the top";
+    } finally {
+      component.close();
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  public void readersSeeCompleteSnapshots() {
+    withComponent((component, scores) -> {
+      Thread writer = new Thread(() -> scores.forEach(score -> {
+        score.points = ENTRY_COUNT - score.points;
+        component.refresh(score);
+      }));
+      writer.start();
+      while (writer.isAlive())
+        assert component.getSortedRange("points", 0, ENTRY_COUNT).size() == ENTRY_COUNT : "Reader saw a partial snapshot";
+      try {
+        writer.join();
+      } catch (InterruptedException exception) {
+        throw new RuntimeException(exception);
+      }
+      assertSorted(component);
+    });
+  }
+
+  @Test
+  public void movingEntriesKeepTheirRank() {
+    withComponent((component, scores) -> {
+      Score moving = scores.getFirst();
+      Thread writer = new Thread(() -> {
+        for (int i = 0; i < ENTRY_COUNT * 10; i++) {
+          moving.points = i % ENTRY_COUNT;
+          component.refresh(moving);
+        }
+      });
+      writer.start();
+      while (writer.isAlive())
+        assert component.rankOf("points", moving).isPresent() : "Entry lost its rank while moving";
+      try {
+        writer.join();
+      } catch (InterruptedException exception) {
+        throw new RuntimeException(exception);
+      }
+    });
+  }
+
+  @Test
+  public void topKKeepsOnlyTheBest() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    Set<Leader> leaders = ConcurrentHashMap.newKeySet();
+    SortedDatabaseComponent<Leader> component = new SortedDatabaseComponent<>(scheduler, Leader.class, () -> leaders);
+    try {
+      component.setup(0);
+      for (int i = 0; i < ENTRY_COUNT; i++) {
+        Leader leader = new Leader(i);
+        leaders.add(leader);
+        component.add(leader);
+      }
+      assertTop(component, ENTRY_COUNT - 1);
+
+      Leader first = component.getSorted("points", 0).orElseThrow();
+      leaders.remove(first);
+      component.remove(first);
+      awaitScheduler(scheduler);
+      assertTop(component, ENTRY_COUNT - 2);
+
+      Leader outsider = leaders.stream().filter(leader -> leader.points == 0).findFirst().orElseThrow();
+      outsider.points = ENTRY_COUNT;
+      component.refresh(outsider);
+      assert component.getSorted("points", 0).orElseThrow() == outsider : "Raised outsider did not enter the top";
+
+      outsider.points = -1;
+      component.refresh(outsider);
+      awaitScheduler(scheduler);
+      assertTop(component, ENTRY_COUNT - 2);
+      assert component.rankOf("points", outsider).isEmpty() : "Lowered entry is still in the top";
+    } finally {
+      component.close();
+      scheduler.shutdown();
+    }
+  }
+
+  private static void assertTop(SortedDatabaseComponent<Leader> component, long highest) {
+    List<Leader> top = component.getSortedRange("points", 0, ENTRY_COUNT);
+    assert top.size() == Leader.TOP : "Top has the wrong size";
+    for (int rank = 0; rank < top.size(); rank++)
+      assert top.get(rank).points == highest - rank : "Top is wrong at rank " + rank;
+  }
+
+  private static void awaitScheduler(ScheduledExecutorService scheduler) {
+    try {
+      scheduler.submit(() -> {}).get();
+    } catch (InterruptedException | ExecutionException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  private static void assertSorted(SortedDatabaseComponent<Score> component) {
+    long previous = Long.MAX_VALUE;
+    for (int rank = 0; component.getSorted("points", rank).isPresent(); rank++) {
+      long points = component.getSorted("points", rank).orElseThrow().points;
+      assert points <= previous : "Entries are out of order at rank " + rank;
+      previous = points;
+    }
+  }
+
+  private static void withComponent(ComponentTest test) {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    List<Score> scores = IntStream.range(0, ENTRY_COUNT).mapToObj(i -> new Score(i)).toList();
+    SortedDatabaseComponent<Score> component = new SortedDatabaseComponent<>(scheduler, Score.class, () -> scores);
+    try {
+      component.setup(ENTRY_COUNT * 2);
+      scores.parallelStream().forEach(component::add);
+      test.run(component, scores);
+    } finally {
+      component.close();
+      scheduler.shutdown();
+    }
+  }
+
+  private interface ComponentTest {
+    void run(SortedDatabaseComponent<Score> component, List<Score> scores);
+  }
+
+}